@@ -0,0 +1,5 @@
+-- Composite indexes for date-range queries (findByRange) and per-type totals.
+
+CREATE INDEX idx_tx_account_time ON transactions (account_id, timestamp);
+
+CREATE INDEX idx_tx_account_type_time ON transactions (account_id, type, timestamp);
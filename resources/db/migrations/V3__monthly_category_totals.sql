@@ -0,0 +1,25 @@
+-- Rollup of transactions per (user, year, month, category, type), kept in step
+-- by TransactionDAO/AccountDAO in the same DB transaction as each write.
+-- Reports read this instead of re-aggregating every transaction.
+
+CREATE TABLE IF NOT EXISTS monthly_category_totals (
+    user_id INT NOT NULL,
+    year SMALLINT NOT NULL,
+    month TINYINT NOT NULL,
+    category_id INT NOT NULL,
+    type ENUM('INCOME', 'EXPENSE') NOT NULL,
+    total DECIMAL(16, 2) NOT NULL DEFAULT 0.00,
+    tx_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, year, month, category_id, type),
+    INDEX idx_mct_user_type (user_id, type),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE
+);
+
+-- Backfill from existing data (safe to re-run: it overwrites with fresh sums)
+INSERT INTO monthly_category_totals (user_id, year, month, category_id, type, total, tx_count)
+SELECT a.user_id, YEAR(t.timestamp), MONTH(t.timestamp), t.category_id, t.type, SUM(t.amount), COUNT(*)
+FROM transactions t
+JOIN accounts a ON t.account_id = a.account_id
+GROUP BY a.user_id, YEAR(t.timestamp), MONTH(t.timestamp), t.category_id, t.type
+ON DUPLICATE KEY UPDATE total = VALUES(total), tx_count = VALUES(tx_count);
@@ -0,0 +1,23 @@
+-- Change log for incremental exports. Updates and deletes of transactions are
+-- recorded by TransactionDAO/AccountDAO/CategoryDAO in the same DB transaction as
+-- the change (inserts need no entry: AUTO_INCREMENT ids only grow, so new rows are
+-- simply those above the last exported id).
+
+CREATE TABLE IF NOT EXISTS transaction_changes (
+    change_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    transaction_id INT NOT NULL,
+    operation ENUM('UPDATE', 'DELETE') NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_tc_user_change (user_id, change_id),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+-- How far each user's last incremental export got
+CREATE TABLE IF NOT EXISTS export_watermarks (
+    user_id INT PRIMARY KEY,
+    last_transaction_id INT NOT NULL,
+    last_change_id BIGINT NOT NULL,
+    exported_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
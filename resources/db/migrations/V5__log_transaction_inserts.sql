@@ -0,0 +1,16 @@
+-- Inserts are logged in transaction_changes too, and incremental exports find new
+-- rows by change_id instead of by id above the last exported one. AUTO_INCREMENT ids
+-- are handed out before commit, so a row that commits after one with a higher id
+-- was skipped by the id comparison.
+
+ALTER TABLE transaction_changes
+    MODIFY operation ENUM('INSERT', 'UPDATE', 'DELETE') NOT NULL;
+
+-- Rows added since each user's last incremental export, which were found by id until now
+INSERT INTO transaction_changes (user_id, transaction_id, operation)
+SELECT a.user_id, t.transaction_id, 'INSERT'
+FROM transactions t
+JOIN accounts a ON t.account_id = a.account_id
+JOIN export_watermarks w ON w.user_id = a.user_id
+WHERE t.transaction_id > w.last_transaction_id
+ORDER BY t.transaction_id;
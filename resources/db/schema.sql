@@ -1,3 +1,6 @@
+-- Fresh install script. Existing databases are upgraded by the versioned
+-- scripts in resources/db/migrations, which the app applies at startup.
+
 CREATE DATABASE personal_finance_db;
 USE personal_finance_db;
 
@@ -40,7 +43,9 @@ CREATE TABLE transactions (
     note VARCHAR(255),
     FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
     FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_tx_account_time (account_id, timestamp),            -- date-range lookups per account
+    INDEX idx_tx_account_type_time (account_id, type, timestamp)  -- income/expense totals over a range
 );
 
 -- 5. Budgets table
@@ -54,3 +59,18 @@ CREATE TABLE budgets (
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     UNIQUE (user_id, year, month) -- prevent duplicates
 );
+
+-- 6. Monthly rollup of transactions, maintained by the app on every write
+CREATE TABLE monthly_category_totals (
+    user_id INT NOT NULL,
+    year SMALLINT NOT NULL,
+    month TINYINT NOT NULL,
+    category_id INT NOT NULL,
+    type ENUM('INCOME', 'EXPENSE') NOT NULL,
+    total DECIMAL(16, 2) NOT NULL DEFAULT 0.00,
+    tx_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, year, month, category_id, type),
+    INDEX idx_mct_user_type (user_id, type),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    FOREIGN KEY (category_id) REFERENCES categories(category_id) ON DELETE CASCADE
+);
@@ -1,14 +1,62 @@
 package personalfinancemanager.app;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import personalfinancemanager.service.ExportService;
+import personalfinancemanager.service.FinanceService;
+import personalfinancemanager.service.ProgressListener;
 import personalfinancemanager.view.ConsoleUI;
 import personalfinancemanager.util.BannerPrinter;
+import personalfinancemanager.util.SchemaMigrator;
 
 public class FinanceApp {
     
     public static void main(String[] args) {
         new File("exports").mkdirs();
         BannerPrinter.printBanner();
+        SchemaMigrator.runAtStartup();
+
+        // Maintenance: recompute the monthly rollup table, then exit
+        if (args.length > 0 && "--rebuild-rollup".equals(args[0])) {
+            int rows = new FinanceService().rebuildMonthlyTotals();
+            System.out.println(rows >= 0 ? "[OK] Rebuilt monthly totals: " + rows + " rows." : "[ERROR] Rebuild failed.");
+            return;
+        }
+
+        // Scheduled backups: write what changed since the user's last incremental export, then exit
+        if (args.length > 1 && "--export-changes".equals(args[0])) {
+            int userId;
+            try {
+                userId = Integer.parseInt(args[1].trim());
+            } catch (NumberFormatException e) {
+                System.out.println("[ERROR] Invalid user id: " + args[1]);
+                return;
+            }
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            File file = new File("exports", "transactions_delta_" + userId + "_" + timestamp + ".csv");
+            try {
+                long changes = new ExportService(new FinanceService()).exportChanges(userId, file, ProgressListener.NONE);
+                System.out.println(changes > 0 ? "[OK] Exported " + changes + " changes to " + file.getPath()
+                        : "[OK] Nothing changed since the last export.");
+            } catch (IOException e) {
+                System.out.println("[ERROR] Incremental export failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // Apply an incremental export to a full export: --merge-changes <full.csv> <delta.csv> <out.csv>
+        if (args.length > 3 && "--merge-changes".equals(args[0])) {
+            try {
+                long rows = ExportService.mergeDelta(new File(args[1]), new File(args[2]), new File(args[3]));
+                System.out.println("[OK] Wrote " + rows + " transactions to " + args[3]);
+            } catch (IOException e) {
+                System.out.println("[ERROR] Merge failed: " + e.getMessage());
+            }
+            return;
+        }
+
         new ConsoleUI().run();
     }
 }
@@ -1,10 +1,14 @@
 package personalfinancemanager.app;
 
 import javax.swing.SwingUtilities;
+import personalfinancemanager.util.SchemaMigrator;
 import personalfinancemanager.view.gui.MainFrame;
 
 public class FinanceGuiApp {
     public static void main(String[] args) {
+        // Bring the schema up to date before any screen touches the database
+        SchemaMigrator.runAtStartup();
+
         // Use SwingUtilities.invokeLater to ensure GUI updates are on the Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
             new MainFrame().setVisible(true);
@@ -1,14 +1,22 @@
 package personalfinancemanager.dao;
 
 import personalfinancemanager.models.Account;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.util.DBUtil;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class AccountDAO implements IAccountDAO {
 
+    // Ids per WHERE account_id IN (...) query; larger sets are split
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
     @Override
     public boolean save(Account account) {
         String sql = "INSERT INTO accounts (user_id, name, balance, created_at) VALUES (?, ?, ?, ?)";
@@ -16,7 +24,7 @@ public class AccountDAO implements IAccountDAO {
              PreparedStatement pst = con.prepareStatement(sql)) {
             pst.setInt(1, account.getUserId());
             pst.setString(2, account.getName());
-            pst.setDouble(3, account.getBalance());
+            pst.setBigDecimal(3, account.getBalance().toBigDecimal());
             pst.setTimestamp(4, Timestamp.valueOf(account.getCreatedAt()));
             return pst.executeUpdate() == 1;
         } catch (SQLException e) {
@@ -26,11 +34,11 @@ public class AccountDAO implements IAccountDAO {
     }
 
     @Override
-    public boolean updateBalance(int accountId, double newBalance) {
+    public boolean updateBalance(int accountId, Money newBalance) {
         String sql = "UPDATE accounts SET balance = ? WHERE account_id = ?";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setDouble(1, newBalance);
+            pst.setBigDecimal(1, newBalance.toBigDecimal());
             pst.setInt(2, accountId);
             return pst.executeUpdate() == 1;
         } catch (SQLException e) {
@@ -52,7 +60,7 @@ public class AccountDAO implements IAccountDAO {
                     rs.getInt("account_id"),
                     userId,
                     rs.getString("name"),
-                    rs.getDouble("balance"),
+                    Money.of(rs.getBigDecimal("balance")),
                     rs.getTimestamp("created_at").toLocalDateTime()
                 ));
             }
@@ -74,7 +82,7 @@ public class AccountDAO implements IAccountDAO {
                     rs.getInt("account_id"),
                     rs.getInt("user_id"),
                     rs.getString("name"),
-                    rs.getDouble("balance"),
+                    Money.of(rs.getBigDecimal("balance")),
                     rs.getTimestamp("created_at").toLocalDateTime()
                 );
             }
@@ -84,17 +92,83 @@ public class AccountDAO implements IAccountDAO {
         return null;
     }
 
+    /**
+     * Batch version of {@link #findById}: every account among the ids, keyed by id,
+     * with one query per MAX_IDS_PER_QUERY ids. Ids that don't exist are left out.
+     */
+    @Override
+    public Map<Integer, Account> findByIds(Collection<Integer> accountIds) {
+        Map<Integer, Account> accounts = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(accountIds);
+        try (Connection con = DBUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+                String sql = "SELECT * FROM accounts WHERE account_id IN (" +
+                             String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pst = con.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pst.setInt(i + 1, chunk.get(i));
+                    }
+                    ResultSet rs = pst.executeQuery();
+                    while (rs.next()) {
+                        Account account = new Account(
+                            rs.getInt("account_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("name"),
+                            Money.of(rs.getBigDecimal("balance")),
+                            rs.getTimestamp("created_at").toLocalDateTime()
+                        );
+                        accounts.put(account.getAccountId(), account);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching accounts by ID: " + e.getMessage());
+        }
+        return accounts;
+    }
+
+    /**
+     * Deletes the account. Its transactions go with it (ON DELETE CASCADE), so their
+     * share of monthly_category_totals is subtracted and their deletes are logged for
+     * incremental exports first, in the same DB transaction.
+     */
     @Override
     public boolean delete(int accountId) {
         String sql = "DELETE FROM accounts WHERE account_id = ?";
+        String rollup = "UPDATE monthly_category_totals m JOIN (" +
+                        "  SELECT a.user_id, YEAR(t.timestamp) AS y, MONTH(t.timestamp) AS mo, t.category_id, t.type, " +
+                        "         SUM(t.amount) AS s, COUNT(*) AS n " +
+                        "  FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                        "  WHERE t.account_id = ? GROUP BY a.user_id, y, mo, t.category_id, t.type) d " +
+                        "ON m.user_id = d.user_id AND m.year = d.y AND m.month = d.mo " +
+                        "AND m.category_id = d.category_id AND m.type = d.type " +
+                        "SET m.total = m.total - d.s, m.tx_count = m.tx_count - d.n";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setInt(1, accountId);
-            return pst.executeUpdate() == 1;
+            con.setAutoCommit(false);
+            try {
+                if (TransactionDAO.ROLLUP_ENABLED) {
+                    try (PreparedStatement rollupPst = con.prepareStatement(rollup)) {
+                        rollupPst.setInt(1, accountId);
+                        rollupPst.executeUpdate();
+                    }
+                }
+                TransactionDAO.logCascadeDeletes(con, "account_id", accountId);
+                pst.setInt(1, accountId);
+                if (pst.executeUpdate() != 1) {
+                    con.rollback();
+                    return false;
+                }
+                con.commit();
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting account: " + e.getMessage());
             return false;
         }
     }
 }
-
@@ -1,10 +1,12 @@
 package personalfinancemanager.dao;
 
+import personalfinancemanager.models.BudgetLookup;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.util.DBUtil;
 import java.sql.*;
 
 public class BudgetDAO implements IBudgetDAO {
-    public boolean saveOrUpdate(int userId, int year, int month, double amount) {
+    public boolean saveOrUpdate(int userId, int year, int month, Money amount) {
         String sql = """
             INSERT INTO budgets (user_id, year, month, amount)
             VALUES (?, ?, ?, ?)
@@ -15,7 +17,7 @@ public class BudgetDAO implements IBudgetDAO {
             pst.setInt(1, userId);
             pst.setInt(2, year);
             pst.setInt(3, month);
-            pst.setDouble(4, amount);
+            pst.setBigDecimal(4, amount.toBigDecimal());
             return pst.executeUpdate() == 1 || pst.executeUpdate() == 2;
         } catch (SQLException e) {
             System.err.println("Budget save error: " + e.getMessage());
@@ -23,7 +25,10 @@ public class BudgetDAO implements IBudgetDAO {
         }
     }
 
-    public Double getBudget(int userId, int year, int month) {
+    /**
+     * @return the budget, NOT_SET if none is set, or FAILED if the query failed
+     */
+    public BudgetLookup getBudget(int userId, int year, int month) {
         String sql = "SELECT amount FROM budgets WHERE user_id = ? AND year = ? AND month = ?";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
@@ -31,10 +36,10 @@ public class BudgetDAO implements IBudgetDAO {
             pst.setInt(2, year);
             pst.setInt(3, month);
             ResultSet rs = pst.executeQuery();
-            return rs.next() ? rs.getDouble("amount") : null;
+            return rs.next() ? BudgetLookup.of(Money.of(rs.getBigDecimal("amount"))) : BudgetLookup.NOT_SET;
         } catch (SQLException e) {
             System.err.println("Budget fetch error: " + e.getMessage());
-            return null;
+            return BudgetLookup.FAILED;
         }
     }
 }
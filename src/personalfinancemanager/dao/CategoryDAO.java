@@ -89,8 +89,21 @@ public class CategoryDAO implements ICategoryDAO {
         String sql = "DELETE FROM categories WHERE category_id = ?";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setInt(1, categoryId);
-            return pst.executeUpdate() == 1;
+            // Its transactions are removed by ON DELETE CASCADE; log them for incremental exports
+            con.setAutoCommit(false);
+            try {
+                TransactionDAO.logCascadeDeletes(con, "category_id", categoryId);
+                pst.setInt(1, categoryId);
+                if (pst.executeUpdate() != 1) {
+                    con.rollback();
+                    return false;
+                }
+                con.commit();
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting category: " + e.getMessage());
             return false;
@@ -1,12 +1,16 @@
 package personalfinancemanager.dao;
 
 import personalfinancemanager.models.Account;
+import personalfinancemanager.models.Money;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IAccountDAO {
     boolean save(Account account);
-    boolean updateBalance(int accountId, double newBalance);
+    boolean updateBalance(int accountId, Money newBalance);
     List<Account> findAllByUserId(int userId);
     Account findById(int accountId);
+    Map<Integer, Account> findByIds(Collection<Integer> accountIds);
     boolean delete(int accountId);
 }
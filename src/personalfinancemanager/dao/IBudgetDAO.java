@@ -1,6 +1,10 @@
 package personalfinancemanager.dao;
 
+import personalfinancemanager.models.BudgetLookup;
+import personalfinancemanager.models.Money;
+
 public interface IBudgetDAO {
-    boolean saveOrUpdate(int userId, int year, int month, double amount);
-    Double getBudget(int userId, int year, int month);
+    boolean saveOrUpdate(int userId, int year, int month, Money amount);
+    // NOT_SET when no budget is set, FAILED on a database error; never null
+    BudgetLookup getBudget(int userId, int year, int month);
 }
@@ -1,15 +1,66 @@
 package personalfinancemanager.dao;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import personalfinancemanager.models.Expense;
 import personalfinancemanager.models.Income;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.SeriesBucket;
+import personalfinancemanager.models.SeriesGroup;
 import personalfinancemanager.models.Transaction;
+import personalfinancemanager.models.TransactionColumns;
+import personalfinancemanager.models.TransactionPage;
+import personalfinancemanager.models.TransactionSeries;
+import personalfinancemanager.models.TransactionTotals;
+import personalfinancemanager.models.TransactionView;
 import personalfinancemanager.util.DBUtil;
 
 public class TransactionDAO extends AbstractDAO<Transaction> {
 
+    // monthly_category_totals (migration V3) is kept in step with every write when enabled
+    static final boolean ROLLUP_ENABLED = Boolean.parseBoolean(DBUtil.getProperty("db.rollup.enabled", "true"));
+
+    // transaction_changes (migrations V4, V5) records inserts, updates and deletes for incremental exports
+    static final boolean CHANGE_LOG_ENABLED = Boolean.parseBoolean(DBUtil.getProperty("db.changeLog.enabled", "true"));
+
+    private static final String CHANGE_LOG_INSERT =
+            "INSERT INTO transaction_changes (user_id, transaction_id, operation) " +
+            "SELECT a.user_id, ?, ? FROM accounts a WHERE a.account_id = ?";
+
+    // Transactions inserted in a change log window (user, after change, up to change)
+    private static final String INSERTED_IN_WINDOW =
+            "SELECT transaction_id FROM transaction_changes " +
+            "WHERE user_id = ? AND change_id > ? AND change_id <= ? AND operation = 'INSERT'";
+
+    // Adds a delta to one rollup row, creating it on first use. The owner comes from the account.
+    private static final String ROLLUP_UPSERT =
+            "INSERT INTO monthly_category_totals (user_id, year, month, category_id, type, total, tx_count) " +
+            "SELECT a.user_id, ?, ?, ?, ?, ?, ? FROM accounts a WHERE a.account_id = ? " +
+            "ON DUPLICATE KEY UPDATE total = total + VALUES(total), tx_count = tx_count + VALUES(tx_count)";
+
+    // Income, expense and count from the rollup; a WHERE on user (and month) is appended
+    private static final String ROLLUP_TOTALS =
+            "SELECT COALESCE(SUM(CASE WHEN type = 'INCOME' THEN total END), 0), " +
+            "COALESCE(SUM(CASE WHEN type = 'EXPENSE' THEN total END), 0), COALESCE(SUM(tx_count), 0) " +
+            "FROM monthly_category_totals ";
+
+    // Listing rows with their account and category names in one round trip (see mapRowToView)
+    private static final String VIEW_SELECT =
+            "SELECT t.transaction_id, t.type, t.amount, t.account_id, a.name AS account_name, " +
+            "t.category_id, c.name AS category_name, t.timestamp, t.note " +
+            "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+            "JOIN categories c ON t.category_id = c.category_id ";
+
     @Override
     public boolean save(Transaction transaction) {
         String sql = "INSERT INTO transactions (account_id, category_id, amount, type, timestamp, note) VALUES (?, ?, ?, ?, ?, ?)";
@@ -17,19 +68,32 @@ public class TransactionDAO extends AbstractDAO<Transaction> {
              PreparedStatement pst = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pst.setInt(1, transaction.getAccountId());
             pst.setInt(2, transaction.getCategoryId());
-            pst.setDouble(3, transaction.getAmount());
+            pst.setBigDecimal(3, transaction.getAmount().toBigDecimal());
             pst.setString(4, transaction.getType()); // Use the getType() method
             pst.setTimestamp(5, Timestamp.valueOf(transaction.getTimestamp()));
             pst.setString(6, transaction.getNote());
 
-            int affectedRows = pst.executeUpdate();
-            if (affectedRows == 1) {
+            // The row and its rollup delta are committed together
+            con.setAutoCommit(false);
+            try {
+                if (pst.executeUpdate() != 1) {
+                    con.rollback();
+                    return false;
+                }
                 try (ResultSet generatedKeys = pst.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         transaction.setTransactionId(generatedKeys.getInt(1));
                     }
                 }
+                addToRollup(con, transaction.getAccountId(), transaction.getCategoryId(), transaction.getType(),
+                        transaction.getTimestamp(), transaction.getAmount(), 1);
+                logChange(con, transaction.getAccountId(), transaction.getTransactionId(), "INSERT");
+                con.commit();
                 return true;
+            } catch (SQLException e) {
+                con.rollback();
+                transaction.setTransactionId(0);
+                throw e;
             }
         } catch (SQLException e) {
             System.err.println("Error saving transaction: " + e.getMessage());
@@ -37,33 +101,248 @@ public class TransactionDAO extends AbstractDAO<Transaction> {
         return false;
     }
 
+    /**
+     * Inserts many transactions using JDBC batching, one database transaction per chunk
+     * of db.batch.size rows. Generated IDs are written back to the Transaction objects,
+     * and each chunk's rollup deltas and change log entries are written in the same
+     * database transaction.
+     *
+     * If a chunk fails it is rolled back and the remaining chunks are skipped.
+     *
+     * @return the number of transactions saved
+     */
+    public int saveAll(List<Transaction> transactions) {
+        String sql = "INSERT INTO transactions (account_id, category_id, amount, type, timestamp, note) VALUES (?, ?, ?, ?, ?, ?)";
+        int chunkSize = Math.max(1, DBUtil.getIntProperty("db.batch.size", 1000));
+        int saved = 0;
+
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement rollup = con.prepareStatement(ROLLUP_UPSERT);
+             PreparedStatement changeLog = con.prepareStatement(CHANGE_LOG_INSERT)) {
+            con.setAutoCommit(false);
+            for (int start = 0; start < transactions.size(); start += chunkSize) {
+                List<Transaction> chunk = transactions.subList(start, Math.min(start + chunkSize, transactions.size()));
+                try {
+                    for (Transaction transaction : chunk) {
+                        pst.setInt(1, transaction.getAccountId());
+                        pst.setInt(2, transaction.getCategoryId());
+                        pst.setBigDecimal(3, transaction.getAmount().toBigDecimal());
+                        pst.setString(4, transaction.getType());
+                        pst.setTimestamp(5, Timestamp.valueOf(transaction.getTimestamp()));
+                        pst.setString(6, transaction.getNote());
+                        pst.addBatch();
+                    }
+                    pst.executeBatch();
+                    try (ResultSet generatedKeys = pst.getGeneratedKeys()) {
+                        for (Transaction transaction : chunk) {
+                            if (!generatedKeys.next()) break;
+                            transaction.setTransactionId(generatedKeys.getInt(1));
+                        }
+                    }
+                    if (ROLLUP_ENABLED) {
+                        // One upsert per (account, month, category, type) in the chunk, not per row
+                        for (RollupDelta delta : summarize(chunk)) {
+                            bindRollup(rollup, delta.accountId, delta.categoryId, delta.type,
+                                    delta.year, delta.month, Money.ofMinor(delta.totalMinor), delta.count);
+                            rollup.addBatch();
+                        }
+                        rollup.executeBatch();
+                    }
+                    if (CHANGE_LOG_ENABLED) {
+                        for (Transaction transaction : chunk) {
+                            changeLog.setInt(1, transaction.getTransactionId());
+                            changeLog.setString(2, "INSERT");
+                            changeLog.setInt(3, transaction.getAccountId());
+                            changeLog.addBatch();
+                        }
+                        changeLog.executeBatch();
+                    }
+                    con.commit();
+                    saved += chunk.size();
+                } catch (SQLException e) {
+                    con.rollback();
+                    pst.clearBatch();
+                    rollup.clearBatch();
+                    changeLog.clearBatch();
+                    for (Transaction transaction : chunk) {
+                        transaction.setTransactionId(0);
+                    }
+                    System.err.println("Error saving transaction batch (rows " + (start + 1) + "-"
+                            + (start + chunk.size()) + "): " + e.getMessage());
+                    break;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving transactions: " + e.getMessage());
+        }
+        return saved;
+    }
+
     @Override
     public boolean delete(int transactionId) {
         String sql = "DELETE FROM transactions WHERE transaction_id = ?";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setInt(1, transactionId);
-            return pst.executeUpdate() == 1;
+            con.setAutoCommit(false);
+            try {
+                Transaction existing = lockRow(con, transactionId);
+                pst.setInt(1, transactionId);
+                if (existing == null || pst.executeUpdate() != 1) {
+                    con.rollback();
+                    return false;
+                }
+                addToRollup(con, existing.getAccountId(), existing.getCategoryId(), existing.getType(),
+                        existing.getTimestamp(), existing.getAmount().negate(), -1);
+                logChange(con, existing.getAccountId(), transactionId, "DELETE");
+                con.commit();
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting transaction: " + e.getMessage());
             return false;
         }
     }
 
-    public boolean updateTransaction(int transactionId, double newAmount, String newNote) {
+    public boolean updateTransaction(int transactionId, Money newAmount, String newNote) {
         String sql = "UPDATE transactions SET amount = ?, note = ? WHERE transaction_id = ?";
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
-            pst.setDouble(1, newAmount);
-            pst.setString(2, newNote);
-            pst.setInt(3, transactionId);
-            return pst.executeUpdate() == 1;
+            con.setAutoCommit(false);
+            try {
+                Transaction existing = lockRow(con, transactionId);
+                pst.setBigDecimal(1, newAmount.toBigDecimal());
+                pst.setString(2, newNote);
+                pst.setInt(3, transactionId);
+                if (existing == null || pst.executeUpdate() != 1) {
+                    con.rollback();
+                    return false;
+                }
+                addToRollup(con, existing.getAccountId(), existing.getCategoryId(), existing.getType(),
+                        existing.getTimestamp(), newAmount.minus(existing.getAmount()), 0);
+                logChange(con, existing.getAccountId(), transactionId, "UPDATE");
+                con.commit();
+                return true;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating transaction: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Recomputes monthly_category_totals from scratch, e.g. after data was changed
+     * outside the app or before the rollup existed.
+     *
+     * @return the number of rollup rows written, or -1 on error
+     */
+    public int rebuildMonthlyTotals() {
+        String insert = "INSERT INTO monthly_category_totals (user_id, year, month, category_id, type, total, tx_count) " +
+                        "SELECT a.user_id, YEAR(t.timestamp), MONTH(t.timestamp), t.category_id, t.type, SUM(t.amount), COUNT(*) " +
+                        "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                        "GROUP BY a.user_id, YEAR(t.timestamp), MONTH(t.timestamp), t.category_id, t.type";
+        try (Connection con = DBUtil.getConnection();
+             Statement st = con.createStatement()) {
+            con.setAutoCommit(false);
+            try {
+                st.executeUpdate("DELETE FROM monthly_category_totals");
+                int rows = st.executeUpdate(insert);
+                con.commit();
+                return rows;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding monthly totals: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // Reads the row and locks it until commit, so concurrent edits can't skew the rollup delta
+    private Transaction lockRow(Connection con, int transactionId) throws SQLException {
+        try (PreparedStatement pst = con.prepareStatement("SELECT * FROM transactions WHERE transaction_id = ? FOR UPDATE")) {
+            pst.setInt(1, transactionId);
+            ResultSet rs = pst.executeQuery();
+            return rs.next() ? mapRowToTransaction(rs) : null;
+        }
+    }
+
+    private void addToRollup(Connection con, int accountId, int categoryId, String type,
+                             LocalDateTime timestamp, Money amount, int count) throws SQLException {
+        if (!ROLLUP_ENABLED) return;
+        try (PreparedStatement pst = con.prepareStatement(ROLLUP_UPSERT)) {
+            bindRollup(pst, accountId, categoryId, type, timestamp.getYear(), timestamp.getMonthValue(), amount, count);
+            pst.executeUpdate();
+        }
+    }
+
+    private void logChange(Connection con, int accountId, int transactionId, String operation) throws SQLException {
+        if (!CHANGE_LOG_ENABLED) return;
+        try (PreparedStatement pst = con.prepareStatement(CHANGE_LOG_INSERT)) {
+            pst.setInt(1, transactionId);
+            pst.setString(2, operation);
+            pst.setInt(3, accountId);
+            pst.executeUpdate();
+        }
+    }
+
+    /**
+     * Logs a DELETE for every transaction of an account or category that is about to be
+     * deleted (ON DELETE CASCADE removes them without going through this DAO).
+     *
+     * @param ownerColumn "account_id" or "category_id"
+     */
+    static void logCascadeDeletes(Connection con, String ownerColumn, int ownerId) throws SQLException {
+        if (!CHANGE_LOG_ENABLED) return;
+        if (!ownerColumn.equals("account_id") && !ownerColumn.equals("category_id")) {
+            throw new IllegalArgumentException(ownerColumn);
+        }
+        String sql = "INSERT INTO transaction_changes (user_id, transaction_id, operation) " +
+                     "SELECT a.user_id, t.transaction_id, 'DELETE' FROM transactions t " +
+                     "JOIN accounts a ON t.account_id = a.account_id WHERE t." + ownerColumn + " = ?";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, ownerId);
+            pst.executeUpdate();
+        }
+    }
+
+    private static void bindRollup(PreparedStatement pst, int accountId, int categoryId, String type,
+                                   int year, int month, Money amount, int count) throws SQLException {
+        pst.setInt(1, year);
+        pst.setInt(2, month);
+        pst.setInt(3, categoryId);
+        pst.setString(4, type);
+        pst.setBigDecimal(5, amount.toBigDecimal());
+        pst.setInt(6, count);
+        pst.setInt(7, accountId);
+    }
+
+    // Sums a chunk per (account, year, month, category, type)
+    private static List<RollupDelta> summarize(List<Transaction> chunk) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        for (Transaction tx : chunk) {
+            LocalDateTime ts = tx.getTimestamp();
+            String key = tx.getAccountId() + ":" + ts.getYear() + ":" + ts.getMonthValue() + ":" + tx.getCategoryId() + ":" + tx.getType();
+            RollupDelta delta = deltas.computeIfAbsent(key, k -> new RollupDelta(
+                    tx.getAccountId(), tx.getCategoryId(), tx.getType(), ts.getYear(), ts.getMonthValue()));
+            delta.totalMinor += tx.getAmount().getMinorUnits();
+            delta.count++;
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    public Transaction findById(int transactionId) {
+        List<Transaction> rows = findTransactions("SELECT t.* FROM transactions t WHERE t.transaction_id = ?", transactionId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
     @Override
     public List<Transaction> findAllByUserId(int userId) {
         String sql = "SELECT t.*, a.user_id FROM transactions t JOIN accounts a ON t.account_id = a.account_id WHERE a.user_id = ?";
@@ -71,9 +350,186 @@ public class TransactionDAO extends AbstractDAO<Transaction> {
     }
 
     public List<Transaction> findByMonth(int userId, int year, int month) {
+        YearMonth period = YearMonth.of(year, month);
+        return findByRange(userId, period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Transactions with from <= timestamp < toExclusive.
+     * Comparing the bare column (instead of YEAR()/MONTH()) lets MySQL use the
+     * (account_id, timestamp) index rather than scanning every row the user owns.
+     */
+    public List<Transaction> findByRange(int userId, LocalDateTime from, LocalDateTime toExclusive) {
         String sql = "SELECT t.* FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
-                     "WHERE a.user_id = ? AND YEAR(t.timestamp) = ? AND MONTH(t.timestamp) = ?";
-        return findTransactions(sql, userId, year, month);
+                     "WHERE a.user_id = ? AND t.timestamp >= ? AND t.timestamp < ?";
+        return findTransactions(sql, userId, Timestamp.valueOf(from), Timestamp.valueOf(toExclusive));
+    }
+
+    /**
+     * Keyset (seek) pagination, newest first, ordered by (timestamp, transaction_id).
+     * Unlike OFFSET, rows before the cursor are never read and thrown away, and the
+     * cursor stays valid when new transactions are added.
+     *
+     * Cost: for a user with one account the (account_id, timestamp) index returns rows
+     * in page order, so a page reads about pageSize rows. With several accounts MySQL
+     * can't merge the per-account index ranges in order, so every page reads and sorts
+     * all of the user's transactions older than the cursor: the first page is the most
+     * expensive, each later one a bit cheaper. Fine for personal histories; a user_id
+     * column on transactions with an index on (user_id, timestamp, transaction_id)
+     * would be needed to make every page cheap.
+     *
+     * @param cursor   null for the first page, otherwise TransactionPage.getNextCursor()
+     * @param pageSize maximum rows on the page
+     */
+    public TransactionPage findPageByUserId(int userId, String cursor, int pageSize) {
+        List<TransactionView> rows;
+        if (cursor == null) {
+            String sql = VIEW_SELECT +
+                         "WHERE a.user_id = ? ORDER BY t.timestamp DESC, t.transaction_id DESC LIMIT ?";
+            rows = findViews(sql, userId, pageSize + 1);
+        } else {
+            String[] key = decodeCursor(cursor);
+            Timestamp timestamp = Timestamp.valueOf(LocalDateTime.parse(key[0]));
+            int transactionId = Integer.parseInt(key[1]);
+            String sql = VIEW_SELECT +
+                         "WHERE a.user_id = ? AND (t.timestamp < ? OR (t.timestamp = ? AND t.transaction_id < ?)) " +
+                         "ORDER BY t.timestamp DESC, t.transaction_id DESC LIMIT ?";
+            rows = findViews(sql, userId, timestamp, timestamp, transactionId, pageSize + 1);
+        }
+        if (rows == null) {
+            rows = new ArrayList<>();
+        }
+
+        // One extra row was fetched only to learn whether another page exists
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = new ArrayList<>(rows.subList(0, pageSize));
+            TransactionView last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getTimestamp(), last.getTransactionId());
+        }
+        return new TransactionPage(rows, nextCursor);
+    }
+
+    /**
+     * Number of transactions across the user's accounts.
+     *
+     * @return the count, or null if the query failed
+     */
+    public Integer countByUserId(int userId) {
+        String sql = "SELECT COUNT(*) FROM transactions t JOIN accounts a ON t.account_id = a.account_id WHERE a.user_id = ?";
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, userId);
+            ResultSet rs = pst.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting transactions: " + e.getMessage());
+            return null;
+        }
+        return 0;
+    }
+
+    /**
+     * Number of transactions in each month that has any, oldest month first.
+     *
+     * @return the counts, or null if the query failed
+     */
+    public Map<YearMonth, Integer> countByMonth(int userId) {
+        String sql = "SELECT YEAR(t.timestamp), MONTH(t.timestamp), COUNT(*) " +
+                     "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                     "WHERE a.user_id = ? GROUP BY YEAR(t.timestamp), MONTH(t.timestamp) " +
+                     "ORDER BY YEAR(t.timestamp), MONTH(t.timestamp)";
+        Map<YearMonth, Integer> counts = new LinkedHashMap<>();
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, userId);
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                counts.put(YearMonth.of(rs.getInt(1), rs.getInt(2)), rs.getInt(3));
+            }
+            return counts;
+        } catch (SQLException e) {
+            System.err.println("Error counting transactions by month: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * A block of rows at an arbitrary position, sorted by the database.
+     * Used by the GUI table, which needs random access as the user drags the scrollbar;
+     * transaction_id breaks ties so blocks never overlap.
+     *
+     * MySQL still reads and discards every row before offset, so prefer findBlockAfter
+     * when a row shortly before the block is known.
+     *
+     * @return the rows, or null on error
+     */
+    public List<TransactionView> findBlock(int userId, TransactionSort sort, boolean ascending, int offset, int limit) {
+        String direction = ascending ? "ASC" : "DESC";
+        String sql = VIEW_SELECT +
+                     "WHERE a.user_id = ? ORDER BY " + sort.getColumn() + " " + direction +
+                     ", t.transaction_id " + direction + " LIMIT ? OFFSET ?";
+        return findViews(sql, userId, limit, offset);
+    }
+
+    /**
+     * Like findBlock, but seeks past a known row instead of counting from the start:
+     * returns limit rows starting skip rows after {@code after} in the same ordering.
+     * Only rows after the boundary are read, so scrolling on from a loaded block costs
+     * the same however deep it is. Sorting on a column without an index still sorts
+     * those remaining rows.
+     *
+     * @return the rows, or null on error
+     */
+    public List<TransactionView> findBlockAfter(int userId, TransactionSort sort, boolean ascending,
+                                                TransactionView after, int skip, int limit) {
+        String direction = ascending ? "ASC" : "DESC";
+        String beyond = ascending ? ">" : "<";
+        String column = sort.getColumn();
+        Object key = sort.keyOf(after);
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+
+        // MySQL puts NULLs first when ascending and last when descending
+        String seek;
+        if (key == null) {
+            seek = ascending
+                    ? "((" + column + " IS NULL AND t.transaction_id > ?) OR " + column + " IS NOT NULL)"
+                    : "(" + column + " IS NULL AND t.transaction_id < ?)";
+            params.add(after.getTransactionId());
+        } else {
+            seek = "(" + column + " " + beyond + " ? OR (" + column + " = ? AND t.transaction_id " + beyond + " ?)" +
+                   (ascending ? "" : " OR " + column + " IS NULL") + ")";
+            params.add(key);
+            params.add(key);
+            params.add(after.getTransactionId());
+        }
+        params.add(limit);
+        params.add(skip);
+
+        String sql = VIEW_SELECT +
+                     "WHERE a.user_id = ? AND " + seek + " ORDER BY " + column + " " + direction +
+                     ", t.transaction_id " + direction + " LIMIT ? OFFSET ?";
+        return findViews(sql, params.toArray());
+    }
+
+    private static String encodeCursor(LocalDateTime timestamp, int transactionId) {
+        String key = timestamp + "|" + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (key.length != 2) throw new IllegalArgumentException();
+            LocalDateTime.parse(key[0]);
+            Integer.parseInt(key[1]);
+            return key;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
     }
 
     private List<Transaction> findTransactions(String sql, Object... params) {
@@ -93,28 +549,510 @@ public class TransactionDAO extends AbstractDAO<Transaction> {
         return transactions;
     }
 
-    public double getTotalByType(int userId, String type) {
-        String sql = "SELECT SUM(t.amount) FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
-                     "WHERE a.user_id = ? AND t.type = ?";
+    // The rows, or null on error
+    private List<TransactionView> findViews(String sql, Object... params) {
+        List<TransactionView> views = new ArrayList<>();
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pst.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                views.add(mapRowToView(rs));
+            }
+            return views;
+        } catch (SQLException e) {
+            System.err.println("Error fetching transactions: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads every transaction of the user into a column store, in date order,
+     * without creating a Transaction object per row. Rows are streamed like in
+     * {@link #streamByUserId}, so the driver never buffers the whole result next to
+     * the arrays being filled.
+     *
+     * @return the columns, or null on error
+     */
+    public TransactionColumns loadColumns(int userId) {
+        String sql = "SELECT t.transaction_id, t.account_id, t.category_id, t.type, t.amount, t.timestamp, t.note " +
+                     "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                     "WHERE a.user_id = ? ORDER BY t.timestamp, t.transaction_id";
+        TransactionColumns columns = new TransactionColumns();
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pst.setFetchSize(Integer.MIN_VALUE);
+            pst.setInt(1, userId);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    columns.append(rs.getInt(1), rs.getInt(2), rs.getInt(3), "EXPENSE".equals(rs.getString(4)),
+                            Money.of(rs.getBigDecimal(5)).getMinorUnits(),
+                            TransactionColumns.epochDay(rs.getTimestamp(6).toLocalDateTime()), rs.getString(7));
+                }
+            }
+            return columns;
+        } catch (SQLException | ArithmeticException e) {
+            System.err.println("Error loading transaction columns: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streams the user's transactions, lowest id first, without holding them in memory:
+     * with a forward-only statement and fetch size Integer.MIN_VALUE the MySQL driver
+     * hands over rows as they arrive on the socket. The connection stays busy until the
+     * stream ends, so the handler must not query the database itself.
+     *
+     * @return rows passed to the handler, or -1 if the query failed
+     * @throws IOException thrown by the handler (the stream is aborted)
+     */
+    public long streamByUserId(int userId, TransactionHandler handler) throws IOException {
+        String sql = VIEW_SELECT +
+                     "WHERE a.user_id = ? ORDER BY t.transaction_id";
+        return stream(sql, handler, userId);
+    }
+
+    /**
+     * As {@link #streamByUserId}, limited to from <= timestamp < toExclusive.
+     * Each call holds its own connection, so several ranges can be streamed in parallel.
+     */
+    public long streamByRange(int userId, LocalDateTime from, LocalDateTime toExclusive, TransactionHandler handler)
+            throws IOException {
+        String sql = VIEW_SELECT +
+                     "WHERE a.user_id = ? AND t.timestamp >= ? AND t.timestamp < ? ORDER BY t.transaction_id";
+        return stream(sql, handler, userId, Timestamp.valueOf(from), Timestamp.valueOf(toExclusive));
+    }
+
+    private long stream(String sql, TransactionHandler handler, Object... params) throws IOException {
+        long rows = 0;
+        boolean stopped = false;
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pst.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < params.length; i++) {
+                pst.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                    boolean more;
+                    try {
+                        more = handler.handle(mapRowToView(rs));
+                    } catch (IOException e) {
+                        stopped = true;
+                        cancelQuietly(pst);
+                        throw e;
+                    }
+                    if (!more) {
+                        stopped = true;
+                        cancelQuietly(pst);
+                        break;
+                    }
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            if (stopped) {
+                return rows; // the driver may complain about the cancelled query on close
+            }
+            System.err.println("Error streaming transactions: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // Closing a streaming result set reads every remaining row first; cancelling the query avoids that
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // Then close() simply drains the rest of the rows
+        }
+    }
+
+    /**
+     * Streams the current state of the user's transactions that were inserted
+     * (inserted = true) or only updated (false) in the change log window
+     * afterChangeId < change_id <= upToChangeId and still exist, lowest id first.
+     */
+    public long streamChanged(int userId, long afterChangeId, long upToChangeId, boolean inserted,
+                              TransactionHandler handler) throws IOException {
+        String sql = VIEW_SELECT + "JOIN (" +
+                     "  SELECT DISTINCT transaction_id FROM transaction_changes " +
+                     "  WHERE user_id = ? AND change_id > ? AND change_id <= ? " +
+                     (inserted ? "AND operation = 'INSERT'" : "AND transaction_id NOT IN (" + INSERTED_IN_WINDOW + ")") +
+                     ") ch ON ch.transaction_id = t.transaction_id ORDER BY t.transaction_id";
+        return inserted
+                ? stream(sql, handler, userId, afterChangeId, upToChangeId)
+                : stream(sql, handler, userId, afterChangeId, upToChangeId, userId, afterChangeId, upToChangeId);
+    }
+
+    /**
+     * Streams the user's transactions as of change upToChangeId, lowest id first: all of
+     * them except rows inserted after it. The first incremental export writes these.
+     */
+    public long streamUpToChange(int userId, long upToChangeId, TransactionHandler handler) throws IOException {
+        String sql = VIEW_SELECT + "WHERE a.user_id = ? AND t.transaction_id NOT IN (" + INSERTED_IN_WINDOW + ") " +
+                     "ORDER BY t.transaction_id";
+        return stream(sql, handler, userId, userId, upToChangeId, Long.MAX_VALUE);
+    }
+
+    /**
+     * Ids of the user's transactions deleted in the change log window that were not
+     * also inserted in it, lowest first; null on error.
+     */
+    public List<Integer> findDeletedIds(int userId, long afterChangeId, long upToChangeId) {
+        String sql = "SELECT DISTINCT transaction_id FROM transaction_changes " +
+                     "WHERE user_id = ? AND change_id > ? AND change_id <= ? AND operation = 'DELETE' " +
+                     "AND transaction_id NOT IN (" + INSERTED_IN_WINDOW + ") ORDER BY transaction_id";
+        List<Integer> ids = new ArrayList<>();
         try (Connection con = DBUtil.getConnection();
              PreparedStatement pst = con.prepareStatement(sql)) {
             pst.setInt(1, userId);
-            pst.setString(2, type);
+            pst.setLong(2, afterChangeId);
+            pst.setLong(3, upToChangeId);
+            pst.setInt(4, userId);
+            pst.setLong(5, afterChangeId);
+            pst.setLong(6, upToChangeId);
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+            return ids;
+        } catch (SQLException e) {
+            System.err.println("Error reading deleted transactions: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * {largest transaction id, largest change log id} of the user right now, the change
+     * id being afterChangeId if nothing was logged after it; null on error.
+     *
+     * change_id is AUTO_INCREMENT, handed out before commit like transaction ids, so the
+     * log rows after afterChangeId are read with a shared lock: that waits for writers
+     * still inside their transaction, and a log row committed after a higher change_id
+     * is not left below the returned high-water.
+     */
+    public long[] getChangeHighWater(int userId, long afterChangeId) {
+        String maxId = "SELECT COALESCE(MAX(t.transaction_id), 0) FROM transactions t " +
+                       "JOIN accounts a ON t.account_id = a.account_id WHERE a.user_id = ?";
+        String maxChange = "SELECT COALESCE(MAX(change_id), ?) FROM transaction_changes " +
+                           "WHERE user_id = ? AND change_id > ? LOCK IN SHARE MODE";
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement ids = con.prepareStatement(maxId);
+             PreparedStatement changes = con.prepareStatement(maxChange)) {
+            changes.setLong(1, afterChangeId);
+            changes.setInt(2, userId);
+            changes.setLong(3, afterChangeId);
+            ResultSet rs = changes.executeQuery();
+            rs.next();
+            long highWater = rs.getLong(1);
+            ids.setInt(1, userId);
+            rs = ids.executeQuery();
+            rs.next();
+            return new long[]{rs.getLong(1), highWater};
+        } catch (SQLException e) {
+            System.err.println("Error reading change watermark: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * {last exported transaction id, last exported change id} of the user's incremental
+     * export, {0, 0} if there was none yet; null on error.
+     */
+    public long[] findExportWatermark(int userId) {
+        String sql = "SELECT last_transaction_id, last_change_id FROM export_watermarks WHERE user_id = ?";
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, userId);
+            ResultSet rs = pst.executeQuery();
+            return rs.next() ? new long[]{rs.getLong(1), rs.getLong(2)} : new long[]{0, 0};
+        } catch (SQLException e) {
+            System.err.println("Error reading export watermark: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean saveExportWatermark(int userId, int lastTransactionId, long lastChangeId) {
+        String sql = "INSERT INTO export_watermarks (user_id, last_transaction_id, last_change_id) VALUES (?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE last_transaction_id = VALUES(last_transaction_id), " +
+                     "last_change_id = VALUES(last_change_id)";
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, userId);
+            pst.setInt(2, lastTransactionId);
+            pst.setLong(3, lastChangeId);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error saving export watermark: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The user's transactions with an id above the watermark, oldest id first.
+     * AUTO_INCREMENT ids only grow, so this is everything inserted since then.
+     */
+    public List<Transaction> findAfterId(int userId, int afterId) {
+        String sql = "SELECT t.* FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                     "WHERE a.user_id = ? AND t.transaction_id > ? ORDER BY t.transaction_id";
+        return findTransactions(sql, userId, afterId);
+    }
+
+    /**
+     * {row count, sum of amounts in minor units, largest id} over the user's transactions,
+     * matching TransactionColumns.fingerprint(); null on error.
+     */
+    public long[] getFingerprint(int userId) {
+        String sql = "SELECT COUNT(*), COALESCE(SUM(t.amount), 0), COALESCE(MAX(t.transaction_id), 0) " +
+                     "FROM transactions t JOIN accounts a ON t.account_id = a.account_id WHERE a.user_id = ?";
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, userId);
+            ResultSet rs = pst.executeQuery();
+            if (rs.next()) {
+                return new long[]{rs.getLong(1), Money.of(rs.getBigDecimal(2)).getMinorUnits(), rs.getLong(3)};
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading transaction fingerprint: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * All-time income, expense and count in one query. Reads the monthly rollup when it
+     * is enabled, so the cost grows with months x categories rather than with transactions.
+     *
+     * @return the totals, or null on error
+     */
+    public TransactionTotals sumTotals(int userId) {
+        if (!ROLLUP_ENABLED) {
+            return sumTotals(userId, null, null);
+        }
+        return queryTotalsRow(ROLLUP_TOTALS + "WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Income, expense and count for one calendar month, from the rollup when enabled.
+     *
+     * @return the totals, or null on error
+     */
+    public TransactionTotals sumMonthTotals(int userId, int year, int month) {
+        if (!ROLLUP_ENABLED) {
+            YearMonth period = YearMonth.of(year, month);
+            return sumTotals(userId, period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay());
+        }
+        return queryTotalsRow(ROLLUP_TOTALS + "WHERE user_id = ? AND year = ? AND month = ?", userId, year, month);
+    }
+
+    /**
+     * Income, expense and count for from <= timestamp < toExclusive (null bounds: all time),
+     * summed over the transactions themselves in one query. Naming both types lets MySQL
+     * range-scan idx_tx_account_type_time (account_id, type, timestamp) per account and type.
+     *
+     * @return the totals, or null on error
+     */
+    public TransactionTotals sumTotals(int userId, LocalDateTime from, LocalDateTime toExclusive) {
+        String sql = "SELECT COALESCE(SUM(CASE WHEN t.type = 'INCOME' THEN t.amount END), 0), " +
+                     "COALESCE(SUM(CASE WHEN t.type = 'EXPENSE' THEN t.amount END), 0), COUNT(*) " +
+                     "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                     "WHERE a.user_id = ? AND t.type IN ('INCOME', 'EXPENSE')";
+        if (from == null) {
+            return queryTotalsRow(sql, userId);
+        }
+        return queryTotalsRow(sql + " AND t.timestamp >= ? AND t.timestamp < ?",
+                userId, Timestamp.valueOf(from), Timestamp.valueOf(toExclusive));
+    }
+
+    private TransactionTotals queryTotalsRow(String sql, Object... params) {
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pst.setObject(i + 1, params[i]);
+            }
             ResultSet rs = pst.executeQuery();
             if (rs.next()) {
-                return rs.getDouble(1);
+                return new TransactionTotals(Money.of(rs.getBigDecimal(1)), Money.of(rs.getBigDecimal(2)), rs.getLong(3));
             }
+            return TransactionTotals.NONE;
         } catch (SQLException e) {
-            System.err.println("Error getting total by type: " + e.getMessage());
+            System.err.println("Error summing transaction totals: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Income and expense per bucket for from <= date < toExclusive, in one grouped query
+     * that returns a row per (group, bucket, type) rather than per transaction. Whole
+     * months that are not split by account are read from the rollup when it is enabled.
+     *
+     * @return the series, or null on error
+     */
+    public TransactionSeries sumSeries(int userId, LocalDate from, LocalDate toExclusive,
+                                       SeriesBucket bucket, SeriesGroup groupBy) {
+        boolean fromRollup = ROLLUP_ENABLED && bucket == SeriesBucket.MONTH && groupBy != SeriesGroup.ACCOUNT
+                && from.getDayOfMonth() == 1 && toExclusive.getDayOfMonth() == 1;
+        String sql;
+        Object[] params;
+        if (fromRollup) {
+            // Months are numbered year * 12 + month - 1 so a range is a single comparison
+            sql = "SELECT " + (groupBy == SeriesGroup.CATEGORY ? "m.category_id, c.name" : "0, NULL") + ", " +
+                  "(m.year - ?) * 12 + m.month - ? AS bucket, m.type, SUM(m.total) " +
+                  "FROM monthly_category_totals m " +
+                  (groupBy == SeriesGroup.CATEGORY ? "JOIN categories c ON m.category_id = c.category_id " : "") +
+                  "WHERE m.user_id = ? AND m.year * 12 + m.month - 1 >= ? AND m.year * 12 + m.month - 1 < ? " +
+                  "GROUP BY " + (groupBy == SeriesGroup.CATEGORY ? "m.category_id, c.name, " : "") + "bucket, m.type";
+            params = new Object[]{from.getYear(), from.getMonthValue(), userId,
+                    from.getYear() * 12 + from.getMonthValue() - 1,
+                    toExclusive.getYear() * 12 + toExclusive.getMonthValue() - 1};
+        } else {
+            String group;
+            switch (groupBy) {
+                case CATEGORY:
+                    group = "t.category_id, c.name";
+                    break;
+                case ACCOUNT:
+                    group = "t.account_id, a.name";
+                    break;
+                default:
+                    group = null;
+            }
+            String bucketColumn;
+            Object[] bucketParams;
+            switch (bucket) {
+                case DAY:
+                    bucketColumn = "DATEDIFF(t.timestamp, ?)";
+                    bucketParams = new Object[]{Date.valueOf(from)};
+                    break;
+                case WEEK:
+                    bucketColumn = "FLOOR(DATEDIFF(t.timestamp, ?) / 7)";
+                    bucketParams = new Object[]{Date.valueOf(from)};
+                    break;
+                default:
+                    bucketColumn = "(YEAR(t.timestamp) - ?) * 12 + MONTH(t.timestamp) - ?";
+                    bucketParams = new Object[]{from.getYear(), from.getMonthValue()};
+            }
+            sql = "SELECT " + (group == null ? "0, NULL" : group) + ", " + bucketColumn + " AS bucket, t.type, SUM(t.amount) " +
+                  "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
+                  (groupBy == SeriesGroup.CATEGORY ? "JOIN categories c ON t.category_id = c.category_id " : "") +
+                  "WHERE a.user_id = ? AND t.timestamp >= ? AND t.timestamp < ? " +
+                  "GROUP BY " + (group == null ? "" : group + ", ") + "bucket, t.type";
+            params = new Object[bucketParams.length + 3];
+            System.arraycopy(bucketParams, 0, params, 0, bucketParams.length);
+            params[bucketParams.length] = userId;
+            params[bucketParams.length + 1] = Timestamp.valueOf(from.atStartOfDay());
+            params[bucketParams.length + 2] = Timestamp.valueOf(toExclusive.atStartOfDay());
+        }
+
+        int buckets = bucket.count(from, toExclusive);
+        Map<Integer, Integer> groupIndex = new LinkedHashMap<>();
+        List<String> groupNames = new ArrayList<>();
+        List<long[]> income = new ArrayList<>();
+        List<long[]> expense = new ArrayList<>();
+        if (groupBy == SeriesGroup.NONE) {
+            // Always one line, even for an empty range
+            groupIndex.put(0, 0);
+            groupNames.add(null);
+            income.add(new long[buckets]);
+            expense.add(new long[buckets]);
+        }
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pst.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                int index = rs.getInt(3);
+                if (index < 0 || index >= buckets) {
+                    continue;
+                }
+                Integer group = groupIndex.get(rs.getInt(1));
+                if (group == null) {
+                    group = groupIndex.size();
+                    groupIndex.put(rs.getInt(1), group);
+                    groupNames.add(rs.getString(2));
+                    income.add(new long[buckets]);
+                    expense.add(new long[buckets]);
+                }
+                long amount = Money.of(rs.getBigDecimal(5)).getMinorUnits();
+                long[] row = "EXPENSE".equals(rs.getString(4)) ? expense.get(group) : income.get(group);
+                row[index] += amount;
+            }
+        } catch (SQLException | ArithmeticException e) {
+            System.err.println("Error summing transaction series: " + e.getMessage());
+            return null;
+        }
+
+        int[] ids = new int[groupIndex.size()];
+        for (Map.Entry<Integer, Integer> entry : groupIndex.entrySet()) {
+            ids[entry.getValue()] = entry.getKey();
+        }
+        return new TransactionSeries(from, toExclusive, bucket, ids, groupNames.toArray(new String[0]),
+                income.toArray(new long[0][]), expense.toArray(new long[0][]));
+    }
+
+    /**
+     * Expense totals per category name for from <= timestamp < toExclusive,
+     * summed by the database and ordered from the largest to the smallest.
+     *
+     * @return the totals, or null on error
+     */
+    public Map<String, Money> sumExpensesByCategory(int userId, LocalDateTime from, LocalDateTime toExclusive) {
+        String sql = "SELECT c.name, SUM(t.amount) AS total FROM transactions t " +
+                     "JOIN accounts a ON t.account_id = a.account_id " +
+                     "JOIN categories c ON t.category_id = c.category_id " +
+                     "WHERE a.user_id = ? AND t.type = 'EXPENSE' AND t.timestamp >= ? AND t.timestamp < ? " +
+                     "GROUP BY t.category_id, c.name ORDER BY total DESC";
+        return queryTotals(sql, "Error summing expenses by category: ",
+                userId, Timestamp.valueOf(from), Timestamp.valueOf(toExclusive));
+    }
+
+    /**
+     * Expense totals per category name for one calendar month, largest first.
+     * Reads the rollup when enabled (one row per category), else aggregates transactions.
+     *
+     * @return the totals, or null on error
+     */
+    public Map<String, Money> sumMonthlyExpensesByCategory(int userId, int year, int month) {
+        if (!ROLLUP_ENABLED) {
+            YearMonth period = YearMonth.of(year, month);
+            return sumExpensesByCategory(userId, period.atDay(1).atStartOfDay(), period.plusMonths(1).atDay(1).atStartOfDay());
+        }
+        String sql = "SELECT c.name, m.total FROM monthly_category_totals m " +
+                     "JOIN categories c ON m.category_id = c.category_id " +
+                     "WHERE m.user_id = ? AND m.year = ? AND m.month = ? AND m.type = 'EXPENSE' AND m.tx_count > 0 " +
+                     "ORDER BY m.total DESC";
+        return queryTotals(sql, "Error summing expenses by category: ", userId, year, month);
+    }
+
+    // Runs a two-column (label, amount) query into an ordered map; null on error
+    private Map<String, Money> queryTotals(String sql, String errorPrefix, Object... params) {
+        Map<String, Money> totals = new LinkedHashMap<>();
+        try (Connection con = DBUtil.getConnection();
+             PreparedStatement pst = con.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pst.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = pst.executeQuery();
+            while (rs.next()) {
+                totals.put(rs.getString(1), Money.of(rs.getBigDecimal(2)));
+            }
+            return totals;
+        } catch (SQLException e) {
+            System.err.println(errorPrefix + e.getMessage());
+            return null;
         }
-        return 0.0;
     }
 
     private Transaction mapRowToTransaction(ResultSet rs) throws SQLException {
         int id = rs.getInt("transaction_id");
         int accountId = rs.getInt("account_id");
         int categoryId = rs.getInt("category_id");
-        double amount = rs.getDouble("amount");
+        Money amount = Money.of(rs.getBigDecimal("amount"));
         String type = rs.getString("type");
         Timestamp timestamp = rs.getTimestamp("timestamp");
         String note = rs.getString("note");
@@ -126,4 +1064,36 @@ public class TransactionDAO extends AbstractDAO<Transaction> {
             return new Expense(id, accountId, categoryId, amount, timestamp.toLocalDateTime(), note, null); // Pass null for createdAt
         }
     }
-}
\ No newline at end of file
+
+    private static TransactionView mapRowToView(ResultSet rs) throws SQLException {
+        return new TransactionView(
+                rs.getInt("transaction_id"),
+                rs.getString("type"),
+                Money.of(rs.getBigDecimal("amount")),
+                rs.getInt("account_id"),
+                rs.getString("account_name"),
+                rs.getInt("category_id"),
+                rs.getString("category_name"),
+                rs.getTimestamp("timestamp").toLocalDateTime(),
+                rs.getString("note"));
+    }
+
+    // Accumulated rollup change for one (account, year, month, category, type)
+    private static final class RollupDelta {
+        final int accountId;
+        final int categoryId;
+        final String type;
+        final int year;
+        final int month;
+        long totalMinor; // summed as a plain long: exact and allocation-free
+        int count;
+
+        RollupDelta(int accountId, int categoryId, String type, int year, int month) {
+            this.accountId = accountId;
+            this.categoryId = categoryId;
+            this.type = type;
+            this.year = year;
+            this.month = month;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package personalfinancemanager.dao;
+
+import java.io.IOException;
+import personalfinancemanager.models.TransactionView;
+
+/**
+ * Receives transaction rows, with their account and category names, one at a time from a streaming read
+ * (see TransactionDAO.streamByUserId).
+ */
+@FunctionalInterface
+public interface TransactionHandler {
+
+    /**
+     * @return true to keep reading, false to stop the stream early
+     * @throws IOException to abort the stream; it is passed on to the caller
+     */
+    boolean handle(TransactionView transaction) throws IOException;
+}
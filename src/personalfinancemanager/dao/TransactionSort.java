@@ -0,0 +1,53 @@
+package personalfinancemanager.dao;
+
+import java.sql.Timestamp;
+import personalfinancemanager.models.TransactionView;
+
+/**
+ * Columns a transaction listing can be sorted by in SQL.
+ * Only these fixed column expressions ever reach an ORDER BY clause
+ * (a and c are the accounts and categories joined into the listing).
+ */
+public enum TransactionSort {
+    ID("t.transaction_id"),
+    // As text: ORDER BY on the ENUM itself uses its index, which wouldn't match a keyset comparison with a string
+    TYPE("CAST(t.type AS CHAR)"),
+    AMOUNT("t.amount"),
+    TIMESTAMP("t.timestamp"),
+    NOTE("t.note"),
+    CATEGORY("c.name"),
+    ACCOUNT("a.name");
+
+    private final String column;
+
+    TransactionSort(String column) {
+        this.column = column;
+    }
+
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * The row's value of this column, as a parameter comparable with getColumn() in SQL.
+     * Null only for NOTE.
+     */
+    Object keyOf(TransactionView row) {
+        switch (this) {
+            case ID:
+                return row.getTransactionId();
+            case TYPE:
+                return row.getType();
+            case AMOUNT:
+                return row.getAmount().toBigDecimal();
+            case TIMESTAMP:
+                return Timestamp.valueOf(row.getTimestamp());
+            case NOTE:
+                return row.getNote();
+            case CATEGORY:
+                return row.getCategoryName();
+            default:
+                return row.getAccountName();
+        }
+    }
+}
@@ -7,12 +7,12 @@ public class Account {
     private int accountId;
     private int userId;
     private String name;
-    private double balance;
+    private Money balance;
     private LocalDateTime createdAt;
 
     public Account() {}
 
-    public Account(int accountId, int userId, String name, double balance, LocalDateTime createdAt) {
+    public Account(int accountId, int userId, String name, Money balance, LocalDateTime createdAt) {
         this.accountId = accountId;
         this.userId = userId;
         this.name = name;
@@ -30,8 +30,8 @@ public class Account {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
-    public double getBalance() { return balance; }
-    public void setBalance(double balance) { this.balance = balance; }
+    public Money getBalance() { return balance; }
+    public void setBalance(Money balance) { this.balance = balance; }
 
 //    public LocalDateTime getCreatedAt() { return createdAt; }
 //    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -0,0 +1,30 @@
+package personalfinancemanager.models;
+
+/**
+ * Result of reading one month's budget: the amount, no budget set, or a failed query.
+ */
+public final class BudgetLookup {
+    public static final BudgetLookup NOT_SET = new BudgetLookup(null, false);
+    public static final BudgetLookup FAILED = new BudgetLookup(null, true);
+
+    private final Money amount;
+    private final boolean failed;
+
+    private BudgetLookup(Money amount, boolean failed) {
+        this.amount = amount;
+        this.failed = failed;
+    }
+
+    public static BudgetLookup of(Money amount) {
+        return new BudgetLookup(amount, false);
+    }
+
+    // The budget, or null if none is set or the query failed
+    public Money getAmount() { return amount; }
+    public boolean isFailed() { return failed; }
+
+    @Override
+    public String toString() {
+        return failed ? "failed" : amount == null ? "not set" : amount.toString();
+    }
+}
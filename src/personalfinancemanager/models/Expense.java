@@ -4,7 +4,7 @@ import java.time.LocalDateTime;
 
 public class Expense extends Transaction {
 
-    public Expense(int transactionId, int accountId, int categoryId, double amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
+    public Expense(int transactionId, int accountId, int categoryId, Money amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
         super(transactionId, accountId, categoryId, amount, timestamp, note, createdAt);
     }
 
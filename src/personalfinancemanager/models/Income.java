@@ -4,7 +4,7 @@ import java.time.LocalDateTime;
 
 public class Income extends Transaction {
 
-    public Income(int transactionId, int accountId, int categoryId, double amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
+    public Income(int transactionId, int accountId, int categoryId, Money amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
         super(transactionId, accountId, categoryId, amount, timestamp, note, createdAt);
     }
 
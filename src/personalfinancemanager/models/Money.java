@@ -0,0 +1,101 @@
+package personalfinancemanager.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An exact amount of money, stored as a whole number of minor units (paise/cents)
+ * to match the DECIMAL(.., 2) columns. Immutable.
+ *
+ * Unlike double, adding amounts never drifts (0.10 + 0.20 is exactly 0.30), and
+ * totals can be summed in a plain long: see {@link #getMinorUnits()} / {@link #ofMinor(long)}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts a decimal amount, rounding half-up to two decimal places.
+     * A null amount (e.g. SUM over no rows) becomes ZERO.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) return ZERO;
+        return ofMinor(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Parses user input such as "1250" or "99.95".
+     *
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static Money parse(String text) {
+        return of(new BigDecimal(text.trim()));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(-minorUnits);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Plain two-decimal form, e.g. "1250.00" or "-3.50".
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
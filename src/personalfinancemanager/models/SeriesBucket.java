@@ -0,0 +1,46 @@
+package personalfinancemanager.models;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of one point of a time series (see TransactionSeries).
+ * Days and weeks are counted from the start of the range, so weeks begin on
+ * whatever weekday the range does; months are calendar months.
+ */
+public enum SeriesBucket {
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * Number of buckets covering from <= date < toExclusive.
+     */
+    public int count(LocalDate from, LocalDate toExclusive) {
+        long days = ChronoUnit.DAYS.between(from, toExclusive);
+        switch (this) {
+            case DAY:
+                return (int) days;
+            case WEEK:
+                return (int) ((days + 6) / 7);
+            default:
+                return (int) ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(toExclusive.minusDays(1))) + 1;
+        }
+    }
+
+    /**
+     * First day of the bucket with the given index. Bucket 0 starts at from, so with
+     * MONTH it is a partial month if from is not the 1st.
+     */
+    public LocalDate start(LocalDate from, int index) {
+        switch (this) {
+            case DAY:
+                return from.plusDays(index);
+            case WEEK:
+                return from.plusWeeks(index);
+            default:
+                return index == 0 ? from : YearMonth.from(from).plusMonths(index).atDay(1);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package personalfinancemanager.models;
+
+/**
+ * How a time series is split: one line for everything, or one per category or account.
+ */
+public enum SeriesGroup {
+    NONE,
+    CATEGORY,
+    ACCOUNT
+}
@@ -6,12 +6,12 @@ public abstract class Transaction {
     private int transactionId;
     private int accountId;
     private int categoryId;
-    private double amount;
+    private Money amount;
     private LocalDateTime timestamp;
     private String note;
     private LocalDateTime createdAt;
 
-    public Transaction(int transactionId, int accountId, int categoryId, double amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
+    public Transaction(int transactionId, int accountId, int categoryId, Money amount, LocalDateTime timestamp, String note, LocalDateTime createdAt) {
         this.transactionId = transactionId;
         this.accountId = accountId;
         this.categoryId = categoryId;
@@ -37,7 +37,7 @@ public abstract class Transaction {
         return categoryId;
     }
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -58,7 +58,7 @@ public abstract class Transaction {
         this.transactionId = transactionId;
     }
 
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
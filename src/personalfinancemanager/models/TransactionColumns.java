@@ -0,0 +1,435 @@
+package personalfinancemanager.models;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One user's transactions stored column by column, for reports.
+ *
+ * Each field is a primitive array indexed by row, so a million transactions take
+ * about 28 bytes each instead of an Income/Expense object with two LocalDateTimes
+ * and a String. Amounts are minor units (see {@link Money}), dates are epoch days,
+ * the type is one bit (set = EXPENSE) and notes are dictionary-encoded.
+ * Category ids are also dictionary-encoded so totals can be summed into a small
+ * long[] indexed by category code.
+ *
+ * Rows are kept in date order, so a month or a year is one contiguous slice found
+ * by binary search and a report only touches the rows it sums. All methods are
+ * synchronized; a report holds the lock for one pass over its slice.
+ */
+public final class TransactionColumns {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int NO_NOTE = -1;
+
+    private int size;
+    private int maxId; // every id ever added is <= this; see add()
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private int[] accountIds = new int[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] noteCodes = new int[INITIAL_CAPACITY];
+    private long[] expenseBits = new long[INITIAL_CAPACITY / 64 + 1]; // bit per row, set = EXPENSE
+
+    // code -> category id, and back
+    private int[] categoryIds = new int[16];
+    private int categoryCount;
+    private final Map<Integer, Integer> categoryCodeById = new HashMap<>();
+
+    // code -> note, and back
+    private final List<String> notes = new ArrayList<>();
+    private final Map<String, Integer> noteCodeByText = new HashMap<>();
+
+    /**
+     * Adds a row after any rows of the same day. New transactions are usually dated
+     * today, so this is normally an append; a back-dated row shifts the later ones.
+     *
+     * Ids come from AUTO_INCREMENT, so a new transaction always has a larger id than
+     * any row already here. A smaller id means the row may already be present (e.g. the
+     * store was loaded after the insert committed) and it is rejected.
+     *
+     * @return false (and nothing is stored) if the id is not greater than every id added
+     *         so far; the caller should rebuild the columns
+     */
+    public synchronized boolean add(int transactionId, int accountId, int categoryId, boolean isExpense,
+                                    long amountMinor, int epochDay, String note) {
+        if (transactionId <= maxId) {
+            return false;
+        }
+        insert(transactionId, accountId, categoryId, isExpense, amountMinor, epochDay, note);
+        return true;
+    }
+
+    public boolean add(Transaction tx) {
+        return add(tx.getTransactionId(), tx.getAccountId(), tx.getCategoryId(), "EXPENSE".equals(tx.getType()),
+                tx.getAmount().getMinorUnits(), epochDay(tx.getTimestamp()), tx.getNote());
+    }
+
+    /**
+     * Adds a row read from the database while building the store, without the id
+     * check of {@link #add}. Rows passed in date order are plain appends.
+     */
+    public synchronized void append(int transactionId, int accountId, int categoryId, boolean isExpense,
+                                    long amountMinor, int epochDay, String note) {
+        insert(transactionId, accountId, categoryId, isExpense, amountMinor, epochDay, note);
+    }
+
+    private void insert(int transactionId, int accountId, int categoryId, boolean isExpense,
+                        long amountMinor, int epochDay, String note) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = firstRowAfter(epochDay);
+        int tail = size - row;
+        if (tail > 0) {
+            System.arraycopy(ids, row, ids, row + 1, tail);
+            System.arraycopy(accountIds, row, accountIds, row + 1, tail);
+            System.arraycopy(categoryCodes, row, categoryCodes, row + 1, tail);
+            System.arraycopy(amounts, row, amounts, row + 1, tail);
+            System.arraycopy(epochDays, row, epochDays, row + 1, tail);
+            System.arraycopy(noteCodes, row, noteCodes, row + 1, tail);
+            shiftTypeBitsUp(row);
+        }
+        ids[row] = transactionId;
+        accountIds[row] = accountId;
+        categoryCodes[row] = categoryCode(categoryId);
+        amounts[row] = amountMinor;
+        epochDays[row] = epochDay;
+        noteCodes[row] = noteCode(note);
+        if (isExpense) {
+            expenseBits[row >>> 6] |= 1L << row;
+        }
+        maxId = Math.max(maxId, transactionId);
+        size++;
+    }
+
+    /**
+     * Removes a row, shifting the later rows down. Deletes are rare next to reads,
+     * so this keeps the scans free of tombstone checks.
+     *
+     * @return false if the id was not present
+     */
+    public synchronized boolean remove(int transactionId) {
+        int row = rowOf(transactionId);
+        if (row < 0) {
+            return false;
+        }
+        int tail = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, tail);
+        System.arraycopy(accountIds, row + 1, accountIds, row, tail);
+        System.arraycopy(categoryCodes, row + 1, categoryCodes, row, tail);
+        System.arraycopy(amounts, row + 1, amounts, row, tail);
+        System.arraycopy(epochDays, row + 1, epochDays, row, tail);
+        System.arraycopy(noteCodes, row + 1, noteCodes, row, tail);
+        shiftTypeBitsDown(row);
+        size--;
+        return true;
+    }
+
+    /**
+     * Changes the amount and note of a row (the edits the app allows).
+     *
+     * @return false if the id was not present
+     */
+    public synchronized boolean update(int transactionId, Money amount, String note) {
+        int row = rowOf(transactionId);
+        if (row < 0) {
+            return false;
+        }
+        amounts[row] = amount.getMinorUnits();
+        noteCodes[row] = noteCode(note);
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return the row's note, or null if it has none or the id is not present
+     */
+    public synchronized String getNote(int transactionId) {
+        int row = rowOf(transactionId);
+        if (row < 0 || noteCodes[row] == NO_NOTE) {
+            return null;
+        }
+        return notes.get(noteCodes[row]);
+    }
+
+    /**
+     * Totals per category id for one type with fromDay <= epoch day < toDayExclusive,
+     * largest first. Categories with no rows in the range are absent.
+     */
+    public synchronized Map<Integer, Money> sumByCategory(boolean ofExpenses, int fromDay, int toDayExclusive) {
+        long[] totals = new long[categoryCount];
+        int[] counts = new int[categoryCount];
+        int end = firstRowFrom(toDayExclusive);
+        for (int i = firstRowFrom(fromDay); i < end; i++) {
+            if (isExpense(i) == ofExpenses) {
+                int code = categoryCodes[i];
+                totals[code] += amounts[i];
+                counts[code]++;
+            }
+        }
+
+        Integer[] order = new Integer[categoryCount];
+        int used = 0;
+        for (int code = 0; code < categoryCount; code++) {
+            if (counts[code] > 0) order[used++] = code;
+        }
+        Arrays.sort(order, 0, used, (a, b) -> Long.compare(totals[b], totals[a]));
+
+        Map<Integer, Money> result = new LinkedHashMap<>();
+        for (int i = 0; i < used; i++) {
+            result.put(categoryIds[order[i]], Money.ofMinor(totals[order[i]]));
+        }
+        return result;
+    }
+
+    /**
+     * Income and expense totals with fromDay <= epoch day < toDayExclusive,
+     * as {income, expense} in minor units.
+     */
+    public synchronized long[] sumByType(int fromDay, int toDayExclusive) {
+        long income = 0;
+        long expenses = 0;
+        int end = firstRowFrom(toDayExclusive);
+        for (int i = firstRowFrom(fromDay); i < end; i++) {
+            if (isExpense(i)) {
+                expenses += amounts[i];
+            } else {
+                income += amounts[i];
+            }
+        }
+        return new long[]{income, expenses};
+    }
+
+    /**
+     * Income and expense totals over every row, as {income, expense} in minor units.
+     */
+    public long[] sumByType() {
+        return sumByType(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public synchronized int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * {row count, sum of all amounts in minor units, largest id}: a cheap check that
+     * the store still matches the database (see TransactionDAO.getFingerprint).
+     */
+    public synchronized long[] fingerprint() {
+        long total = 0;
+        int largest = 0;
+        for (int i = 0; i < size; i++) {
+            total += amounts[i];
+            largest = Math.max(largest, ids[i]);
+        }
+        return new long[]{size, total, largest};
+    }
+
+    /**
+     * Bytes written by {@link #writeTo}. Hold this object's lock across both calls
+     * if the store may change in between.
+     */
+    public synchronized int encodedSize() {
+        long bytes = 4L * 4 + 4L * categoryCount;
+        for (String note : notes) {
+            bytes += 4 + note.getBytes(StandardCharsets.UTF_8).length;
+        }
+        bytes += (long) size * (5 * 4 + 8) + 8L * wordsFor(size);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Transaction store too large to encode: " + bytes + " bytes");
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Writes the columns as raw arrays, so {@link #readFrom} can copy them back in bulk.
+     */
+    public synchronized void writeTo(ByteBuffer out) {
+        out.putInt(size).putInt(maxId).putInt(categoryCount).putInt(notes.size());
+        putInts(out, categoryIds, categoryCount);
+        for (String note : notes) {
+            byte[] bytes = note.getBytes(StandardCharsets.UTF_8);
+            out.putInt(bytes.length).put(bytes);
+        }
+        putInts(out, ids, size);
+        putInts(out, accountIds, size);
+        putInts(out, categoryCodes, size);
+        putInts(out, noteCodes, size);
+        putInts(out, epochDays, size);
+        out.asLongBuffer().put(amounts, 0, size);
+        out.position(out.position() + size * 8);
+        out.asLongBuffer().put(expenseBits, 0, wordsFor(size));
+        out.position(out.position() + wordsFor(size) * 8);
+    }
+
+    /**
+     * Reads columns written by {@link #writeTo}.
+     *
+     * @throws java.nio.BufferUnderflowException if the buffer is truncated
+     */
+    public static TransactionColumns readFrom(ByteBuffer in) {
+        TransactionColumns columns = new TransactionColumns();
+        int rows = in.getInt();
+        int largestId = in.getInt();
+        int categories = in.getInt();
+        int noteCount = in.getInt();
+        if (rows < 0 || categories < 0 || noteCount < 0) {
+            throw new IllegalArgumentException("Corrupt transaction store header");
+        }
+
+        columns.categoryIds = getInts(in, Math.max(16, categories), categories);
+        columns.categoryCount = categories;
+        for (int code = 0; code < categories; code++) {
+            columns.categoryCodeById.put(columns.categoryIds[code], code);
+        }
+        for (int code = 0; code < noteCount; code++) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            String note = new String(bytes, StandardCharsets.UTF_8);
+            columns.notes.add(note);
+            columns.noteCodeByText.put(note, code);
+        }
+
+        int capacity = Math.max(INITIAL_CAPACITY, rows);
+        columns.ids = getInts(in, capacity, rows);
+        columns.accountIds = getInts(in, capacity, rows);
+        columns.categoryCodes = getInts(in, capacity, rows);
+        columns.noteCodes = getInts(in, capacity, rows);
+        columns.epochDays = getInts(in, capacity, rows);
+        columns.amounts = new long[capacity];
+        in.asLongBuffer().get(columns.amounts, 0, rows);
+        in.position(in.position() + rows * 8);
+        columns.expenseBits = new long[capacity / 64 + 1];
+        in.asLongBuffer().get(columns.expenseBits, 0, wordsFor(rows));
+        in.position(in.position() + wordsFor(rows) * 8);
+        columns.size = rows;
+        columns.maxId = largestId;
+        return columns;
+    }
+
+    public static int epochDay(LocalDateTime timestamp) {
+        return (int) timestamp.toLocalDate().toEpochDay();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("rows=%d, capacity=%d, categories=%d, distinct notes=%d",
+                size, ids.length, categoryCount, notes.size());
+    }
+
+    private boolean isExpense(int row) {
+        return (expenseBits[row >>> 6] & (1L << row)) != 0;
+    }
+
+    // Opens a clear bit at row by moving the bits of rows [row, size) up one.
+    // Bits at and above size are always zero, so whole words can be shifted.
+    private void shiftTypeBitsUp(int row) {
+        int first = row >>> 6;
+        for (int w = size >>> 6; w > first; w--) {
+            expenseBits[w] = (expenseBits[w] << 1) | (expenseBits[w - 1] >>> 63);
+        }
+        long below = (1L << row) - 1; // bits of rows before row in its word
+        expenseBits[first] = (expenseBits[first] & below) | ((expenseBits[first] & ~below) << 1);
+    }
+
+    // Closes the gap at row by moving the bits of rows (row, size) down one
+    private void shiftTypeBitsDown(int row) {
+        int first = row >>> 6;
+        int last = (size - 1) >>> 6;
+        long below = (1L << row) - 1;
+        expenseBits[first] = (expenseBits[first] & below) | ((expenseBits[first] >>> 1) & ~below);
+        for (int w = first; w < last; w++) {
+            expenseBits[w] |= expenseBits[w + 1] << 63;
+            expenseBits[w + 1] >>>= 1;
+        }
+    }
+
+    private static int wordsFor(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    private static void putInts(ByteBuffer out, int[] values, int count) {
+        out.asIntBuffer().put(values, 0, count);
+        out.position(out.position() + count * 4);
+    }
+
+    private static int[] getInts(ByteBuffer in, int capacity, int count) {
+        int[] values = new int[capacity];
+        in.asIntBuffer().get(values, 0, count);
+        in.position(in.position() + count * 4);
+        return values;
+    }
+
+    // First row dated on or after the day (size if none)
+    private int firstRowFrom(int epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    // First row dated after the day (size if none)
+    private int firstRowAfter(int epochDay) {
+        return epochDay == Integer.MAX_VALUE ? size : firstRowFrom(epochDay + 1);
+    }
+
+    // Rows are ordered by date, not id, so this is a linear scan; only writes use it
+    private int rowOf(int transactionId) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == transactionId) return i;
+        }
+        return -1;
+    }
+
+    private int categoryCode(int categoryId) {
+        Integer code = categoryCodeById.get(categoryId);
+        if (code == null) {
+            if (categoryCount == categoryIds.length) {
+                categoryIds = Arrays.copyOf(categoryIds, categoryCount * 2);
+            }
+            code = categoryCount;
+            categoryIds[categoryCount++] = categoryId;
+            categoryCodeById.put(categoryId, code);
+        }
+        return code;
+    }
+
+    private int noteCode(String note) {
+        if (note == null || note.isEmpty()) {
+            return NO_NOTE;
+        }
+        Integer code = noteCodeByText.get(note);
+        if (code == null) {
+            code = notes.size();
+            notes.add(note);
+            noteCodeByText.put(note, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        accountIds = Arrays.copyOf(accountIds, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        noteCodes = Arrays.copyOf(noteCodes, capacity);
+        expenseBits = Arrays.copyOf(expenseBits, capacity / 64 + 1);
+    }
+}
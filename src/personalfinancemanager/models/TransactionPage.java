@@ -0,0 +1,21 @@
+package personalfinancemanager.models;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated transaction listing.
+ * Pass getNextCursor() back to fetch the following page; it is null on the last page.
+ */
+public class TransactionPage {
+    private final List<TransactionView> transactions;
+    private final String nextCursor;
+
+    public TransactionPage(List<TransactionView> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionView> getTransactions() { return transactions; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+}
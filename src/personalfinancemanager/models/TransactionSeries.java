@@ -0,0 +1,65 @@
+package personalfinancemanager.models;
+
+import java.time.LocalDate;
+
+/**
+ * Income and expense per time bucket over a date range, optionally one row per
+ * category or account. Amounts are minor units (paise) in dense arrays indexed by
+ * bucket: a bucket without transactions holds 0, so charts can plot them directly.
+ *
+ * The arrays are handed out as they are, not copied; don't modify them.
+ */
+public final class TransactionSeries {
+    private final LocalDate from;
+    private final LocalDate toExclusive;
+    private final SeriesBucket bucket;
+    private final int[] groupIds;       // category or account id; 0 when not grouped
+    private final String[] groupNames;  // null when not grouped
+    private final long[][] income;      // [group][bucket]
+    private final long[][] expense;
+
+    public TransactionSeries(LocalDate from, LocalDate toExclusive, SeriesBucket bucket,
+                             int[] groupIds, String[] groupNames, long[][] income, long[][] expense) {
+        this.from = from;
+        this.toExclusive = toExclusive;
+        this.bucket = bucket;
+        this.groupIds = groupIds;
+        this.groupNames = groupNames;
+        this.income = income;
+        this.expense = expense;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getToExclusive() { return toExclusive; }
+    public SeriesBucket getBucket() { return bucket; }
+
+    public int getBucketCount() {
+        return bucket.count(from, toExclusive);
+    }
+
+    public LocalDate getBucketStart(int index) {
+        return bucket.start(from, index);
+    }
+
+    // One group when not split; otherwise only categories/accounts that have transactions in the range
+    public int getGroupCount() { return groupIds.length; }
+    public int getGroupId(int group) { return groupIds[group]; }
+    public String getGroupName(int group) { return groupNames[group]; }
+
+    public long[] getIncome(int group) { return income[group]; }
+    public long[] getExpense(int group) { return expense[group]; }
+
+    // Per-bucket sums over all groups
+    public long[] getTotalIncome() { return sumGroups(income); }
+    public long[] getTotalExpense() { return sumGroups(expense); }
+
+    private long[] sumGroups(long[][] values) {
+        long[] totals = new long[getBucketCount()];
+        for (long[] row : values) {
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += row[i];
+            }
+        }
+        return totals;
+    }
+}
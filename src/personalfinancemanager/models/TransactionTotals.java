@@ -0,0 +1,33 @@
+package personalfinancemanager.models;
+
+/**
+ * Income total, expense total and number of transactions over some period,
+ * as returned by one aggregate query.
+ */
+public final class TransactionTotals {
+    public static final TransactionTotals NONE = new TransactionTotals(Money.ZERO, Money.ZERO, 0);
+
+    private final Money income;
+    private final Money expense;
+    private final long count;
+
+    public TransactionTotals(Money income, Money expense, long count) {
+        this.income = income;
+        this.expense = expense;
+        this.count = count;
+    }
+
+    public Money getIncome() { return income; }
+    public Money getExpense() { return expense; }
+    public long getCount() { return count; }
+
+    // Income minus expense; negative for a deficit
+    public Money getNet() {
+        return income.minus(expense);
+    }
+
+    @Override
+    public String toString() {
+        return "income=" + income + ", expense=" + expense + ", count=" + count;
+    }
+}
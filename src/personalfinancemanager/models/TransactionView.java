@@ -0,0 +1,55 @@
+package personalfinancemanager.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of a transaction listing, with the account and category names
+ * already filled in by the database (one joined query instead of separate
+ * account and category lookups). Use Transaction for anything that is saved.
+ */
+public final class TransactionView {
+    private final int transactionId;
+    private final String type;
+    private final Money amount;
+    private final int accountId;
+    private final String accountName;
+    private final int categoryId;
+    private final String categoryName;
+    private final LocalDateTime timestamp;
+    private final String note;
+
+    public TransactionView(int transactionId, String type, Money amount, int accountId, String accountName,
+                           int categoryId, String categoryName, LocalDateTime timestamp, String note) {
+        this.transactionId = transactionId;
+        this.type = type;
+        this.amount = amount;
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.timestamp = timestamp;
+        this.note = note;
+    }
+
+    public int getTransactionId() { return transactionId; }
+    public String getType() { return type; }
+    public Money getAmount() { return amount; }
+    public int getAccountId() { return accountId; }
+    public String getAccountName() { return accountName; }
+    public int getCategoryId() { return categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getNote() { return note; }
+
+    public boolean isExpense() {
+        return "EXPENSE".equals(type);
+    }
+
+    /**
+     * @return a copy with a new amount and note, e.g. after the row was edited
+     */
+    public TransactionView withAmountAndNote(Money newAmount, String newNote) {
+        return new TransactionView(transactionId, type, newAmount, accountId, accountName,
+                categoryId, categoryName, timestamp, newNote);
+    }
+}
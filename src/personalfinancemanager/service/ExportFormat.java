@@ -0,0 +1,34 @@
+package personalfinancemanager.service;
+
+/**
+ * File formats for the full transaction export.
+ */
+public enum ExportFormat {
+    CSV("CSV File (*.csv)", ".csv"),
+    GZIP("Gzipped CSV (*.csv.gz)", ".csv.gz"),
+    ZIP("Zip Archive (*.zip)", ".zip"),
+    // Compact binary backup, see TransactionArchive; restored through ImportService
+    ARCHIVE("Binary Backup (*.pfma)", ".pfma");
+
+    private final String description;
+    private final String extension;
+
+    ExportFormat(String description, String extension) {
+        this.description = description;
+        this.extension = extension;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    // Including the dot, e.g. ".csv.gz"
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -1,19 +1,50 @@
 package personalfinancemanager.service;
 
-import personalfinancemanager.models.Transaction;
+import personalfinancemanager.dao.TransactionHandler;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionView;
+import personalfinancemanager.util.CsvUtil;
+import personalfinancemanager.util.DBUtil;
 
 // Import File and File classes
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 // End of new imports
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors; // Added this import
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 public class ExportService {
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 5_000; // rows between progress/cancel checks
+    private static final String CSV_HEADER = "TransactionID,Type,Amount,Category,Account,Timestamp,Note\n";
+    private static final String DELTA_HEADER = "Change," + CSV_HEADER;
+
     private final FinanceService financeService;
 
     public ExportService(FinanceService financeService) {
@@ -51,50 +82,397 @@ public class ExportService {
      * @throws IOException if the file writing fails.
      */
     public boolean exportAllTransactions(int userId, File file) throws IOException {
-        List<Transaction> txList = financeService.getAllTransactions(userId);
-        if (txList.isEmpty()) return false;
+        return exportAllTransactions(userId, file, ProgressListener.NONE) > 0;
+    }
 
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("TransactionID,Type,Amount,Category,Account,Timestamp,Note\n");
-
-            // We need to get Account and Category names for a user-friendly export
-            Map<Integer, String> accountMap = financeService.getAccountsByUser(userId)
-                    .stream().collect(Collectors.toMap(
-                            personalfinancemanager.models.Account::getAccountId,
-                            personalfinancemanager.models.Account::getName
-                    ));
-
-            Map<Integer, String> categoryMap = financeService.getCategoriesByUser(userId)
-                    .stream().collect(Collectors.toMap(
-                            personalfinancemanager.models.Category::getCategoryId,
-                            personalfinancemanager.models.Category::getName
-                    ));
-
-            for (Transaction tx : txList) {
-                // Get names, with a fallback if not found
-                String categoryName = categoryMap.getOrDefault(tx.getCategoryId(), "N/A");
-                String accountName = accountMap.getOrDefault(tx.getAccountId(), "N/A");
-
-                // Escape commas in notes to prevent breaking CSV
-                String note = (tx.getNote() != null ? tx.getNote() : "").replace(",", ";");
-
-                writer.write(String.format("%d,%s,%.2f,%s,%s,%s,%s\n",
-                        tx.getTransactionId(),
-                        tx.getType(),
-                        tx.getAmount(),
-                        categoryName,
-                        accountName,
-                        tx.getTimestamp().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
-                        note));
+    public long exportAllTransactions(int userId, File file, ProgressListener listener) throws IOException {
+        return exportAllTransactions(userId, file, ExportFormat.CSV, ExportSplit.NONE, listener);
+    }
+
+    /**
+     * Streams the user's whole history into a CSV file, so memory use stays flat
+     * however many transactions there are. Rows are read from a forward-only cursor
+     * and formatted into one reused buffer (no String.format or per-row formatters);
+     * text fields are quoted per RFC 4180 where needed.
+     *
+     * GZIP compresses the CSV as it is written. ZIP can also split the history into
+     * one CSV entry per year or month: each entry is read over its own connection and
+     * deflated by its own worker (export.workers at a time), then the archive is put
+     * together in order. ARCHIVE writes the binary backup format instead of CSV
+     * (see TransactionArchive), which ImportService reads back.
+     *
+     * @param split    must be NONE unless the format is ZIP
+     * @param listener gets (rows written, total rows) every few thousand rows and can cancel
+     * @return rows written, 0 if there was nothing to export, or -1 if cancelled
+     *         (a cancelled or failed export deletes the partial file)
+     * @throws IOException if the file can't be written or the database read fails
+     */
+    public long exportAllTransactions(int userId, File file, ExportFormat format, ExportSplit split,
+                                      ProgressListener listener) throws IOException {
+        if (split != ExportSplit.NONE && format != ExportFormat.ZIP) {
+            throw new IllegalArgumentException("Only zip exports can be split, not " + format);
+        }
+        List<Partition> partitions = null;
+        Long total = null;
+        if (format == ExportFormat.ZIP) {
+            Map<YearMonth, Integer> counts = financeService.getTransactionCountsByMonth(userId);
+            if (counts != null) {
+                partitions = partition(counts.keySet(), split);
+                total = counts.values().stream().mapToLong(Integer::longValue).sum();
             }
-            return true;
+        } else {
+            Integer count = financeService.getTransactionCount(userId);
+            total = count == null ? null : count.longValue();
+        }
+        if (total == null) {
+            throw new IOException("Could not read transactions from the database.");
+        }
+        if (total == 0) return 0;
+
+        ExportProgress progress = new ExportProgress(listener, total);
+        boolean finished = false;
+        try {
+            if (format == ExportFormat.ZIP) {
+                writeZip(userId, file, partitions, progress);
+            } else if (format == ExportFormat.ARCHIVE) {
+                writeArchive(userId, file, progress);
+            } else {
+                writeCsv(userId, file, format == ExportFormat.GZIP, progress);
+            }
+            finished = !progress.isCancelled();
         } catch (IOException e) {
             System.err.println("Export failed: " + e.getMessage());
             // Re-throw the exception so the GUI can catch it
             throw e;
+        } finally {
+            if (!finished) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        if (progress.isCancelled()) {
+            return -1;
+        }
+        long written = progress.getWritten();
+        listener.onProgress(written, written);
+        return written;
+    }
+
+    private void writeCsv(int userId, File file, boolean gzip, ExportProgress progress) throws IOException {
+        try (OutputStream fileOut = new FileOutputStream(file);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     gzip ? new GZIPOutputStream(fileOut, WRITE_BUFFER_CHARS) : fileOut, StandardCharsets.UTF_8),
+                     WRITE_BUFFER_CHARS)) {
+            CountingHandler rows = new CountingHandler(new CsvRowWriter(writer, CSV_HEADER), progress);
+            checkStreamed(financeService.streamTransactions(userId, rows));
+            rows.finish();
+        }
+    }
+
+    private void writeArchive(int userId, File file, ExportProgress progress) throws IOException {
+        try (TransactionArchive.Writer archive = new TransactionArchive.Writer(new FileOutputStream(file))) {
+            CountingHandler rows = new CountingHandler(archive, progress);
+            checkStreamed(financeService.streamTransactions(userId, rows));
+            rows.finish();
+        }
+    }
+
+    private void writeZip(int userId, File file, List<Partition> partitions, ExportProgress progress)
+            throws IOException {
+        Path tempDir = Files.createTempDirectory("pfm-export-");
+        // Read per export rather than at class load, so a bad value can't break the class
+        int workerCount = Math.max(1, DBUtil.getIntProperty("export.workers", 4));
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(workerCount, partitions.size()), r -> {
+            Thread t = new Thread(r, "export-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try (ZipAssembler zip = new ZipAssembler(file.toPath(), LocalDateTime.now())) {
+            List<Future<ZipAssembler.Entry>> pending = new ArrayList<>();
+            for (Partition partition : partitions) {
+                ZipAssembler.Entry entry = new ZipAssembler.Entry(partition.name, tempDir.resolve(partition.name));
+                pending.add(workers.submit(() -> {
+                    try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                            ZipAssembler.deflate(entry), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+                        CountingHandler rows = new CountingHandler(new CsvRowWriter(writer, CSV_HEADER), progress);
+                        checkStreamed(partition.from == null
+                                ? financeService.streamTransactions(userId, rows)
+                                : financeService.streamTransactions(userId, partition.from, partition.to, rows));
+                        rows.finish();
+                    }
+                    return entry;
+                }));
+            }
+            // Entries go into the archive in order, each as soon as its worker is done
+            for (Future<ZipAssembler.Entry> future : pending) {
+                ZipAssembler.Entry entry = await(future);
+                if (progress.isStopped()) {
+                    return; // cancelled: the caller deletes the file
+                }
+                zip.add(entry);
+                Files.delete(entry.data);
+            }
+        } finally {
+            progress.stop(); // so workers still running after a failure give up at their next row
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deleteTempDir(tempDir);
         }
     }
 
+    /**
+     * Incremental export for scheduled backups: writes only what changed since the
+     * user's previous incremental export, so its cost follows activity rather than
+     * the size of the history. The first run has no watermark and writes everything.
+     *
+     * Inserts, updates and deletes come from the transaction_changes log (migrations
+     * V4, V5), by change id rather than transaction id: ids are handed out before
+     * commit, so a row can commit after one with a higher id. The file is the full
+     * export's CSV with a leading Change column: DELETE rows (id only) and UPDATE rows
+     * (current values) for transactions that existed at the previous export, then INSERT
+     * rows. {@link #mergeDelta} applies it to a full export. The watermark only moves
+     * once the file is complete, so a failed or cancelled run is redone next time.
+     *
+     * @param listener gets (changes written, -1) every few thousand rows and can cancel
+     * @return changes written, 0 if nothing changed (no file is written), or -1 if cancelled
+     * @throws IOException if the file can't be written or the database read fails
+     */
+    public long exportChanges(int userId, File file, ProgressListener listener) throws IOException {
+        long[] since = financeService.getExportWatermark(userId);
+        long[] upTo = since == null ? null : financeService.getChangeHighWater(userId, since[1]);
+        if (since == null || upTo == null) {
+            throw new IOException("Could not read the export watermark from the database.");
+        }
+        long lastChange = since[1];
+        int maxId = (int) upTo[0];
+        long maxChange = upTo[1];
+        // The first run writes every row as an INSERT, including rows from before inserts were logged
+        boolean firstRun = since[0] == 0 && lastChange == 0;
+        if (firstRun ? maxId == 0 : maxChange <= lastChange) return 0;
+
+        List<Integer> deleted = firstRun
+                ? List.of() : financeService.getDeletedTransactionIds(userId, lastChange, maxChange);
+        if (deleted == null) {
+            throw new IOException("Could not read the change log from the database.");
+        }
+        ExportProgress progress = new ExportProgress(listener, -1);
+        boolean finished = false;
+        try {
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+                CsvRowWriter csv = new CsvRowWriter(writer, DELTA_HEADER);
+                CountingHandler rows = new CountingHandler(csv, progress);
+                for (int id : deleted) {
+                    writer.write("DELETE," + id + ",,,,,,\n");
+                }
+                progress.rowsWritten(deleted.size());
+                if (firstRun) {
+                    csv.setChange("INSERT");
+                    checkStreamed(financeService.streamTransactionsUpToChange(userId, maxChange, rows));
+                } else if (!progress.isStopped()) {
+                    csv.setChange("UPDATE");
+                    checkStreamed(financeService.streamChangedTransactions(userId, lastChange, maxChange, rows));
+                    if (!progress.isStopped()) {
+                        csv.setChange("INSERT");
+                        checkStreamed(financeService.streamInsertedTransactions(userId, lastChange, maxChange, rows));
+                    }
+                }
+                rows.finish();
+            }
+            if (!progress.isCancelled() && !financeService.saveExportWatermark(userId, maxId, maxChange)) {
+                throw new IOException("Could not save the export watermark; the changes will be exported again.");
+            }
+            finished = !progress.isCancelled();
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            throw e;
+        } finally {
+            if (!finished) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        if (progress.isCancelled()) {
+            return -1;
+        }
+        long written = progress.getWritten();
+        listener.onProgress(written, written);
+        return written;
+    }
+
+    /**
+     * Applies a file written by {@link #exportChanges} to a full CSV export (or to the
+     * result of an earlier merge) and writes the up-to-date full export to {@code out}.
+     * Both files are streamed; only the delta's UPDATE and DELETE rows are kept in memory.
+     *
+     * @return rows in the merged file
+     * @throws IOException if a file can't be read or written, or isn't in the expected format
+     */
+    public static long mergeDelta(File base, File delta, File out) throws IOException {
+        boolean finished = false;
+        try (BufferedReader deltaReader = openCsv(delta);
+             BufferedReader baseReader = openCsv(base);
+             Writer writer = new BufferedWriter(
+                     new OutputStreamWriter(new FileOutputStream(out), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+            requireHeader(deltaReader, DELTA_HEADER, delta);
+            requireHeader(baseReader, CSV_HEADER, base);
+            writer.write(CSV_HEADER);
+
+            // Transaction id -> new row, or null if it was deleted
+            Map<Integer, String> changed = new HashMap<>();
+            String insert = null;
+            String record;
+            while (insert == null && (record = CsvUtil.readRecord(deltaReader)) != null) {
+                if (record.isEmpty()) continue;
+                String row = record.substring(record.indexOf(',') + 1);
+                switch (changeOf(record)) {
+                    case "UPDATE" -> changed.put(idOf(row), row);
+                    case "DELETE" -> changed.put(idOf(row), null);
+                    default -> insert = row; // INSERT rows come last
+                }
+            }
+
+            long rows = 0;
+            while ((record = CsvUtil.readRecord(baseReader)) != null) {
+                if (record.isEmpty()) continue;
+                int id = idOf(record);
+                if (changed.containsKey(id)) {
+                    record = changed.get(id);
+                    if (record == null) continue;
+                }
+                writer.write(record);
+                writer.write('\n');
+                rows++;
+            }
+            while (insert != null) {
+                writer.write(insert);
+                writer.write('\n');
+                rows++;
+                do {
+                    record = CsvUtil.readRecord(deltaReader);
+                } while (record != null && record.isEmpty());
+                if (record != null && !changeOf(record).equals("INSERT")) {
+                    throw new IOException(delta.getName() + ": " + changeOf(record) + " row after the INSERT rows.");
+                }
+                insert = record == null ? null : record.substring(record.indexOf(',') + 1);
+            }
+            finished = true;
+            return rows;
+        } finally {
+            if (!finished) {
+                Files.deleteIfExists(out.toPath());
+            }
+        }
+    }
+
+    private static BufferedReader openCsv(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private static void requireHeader(BufferedReader reader, String header, File file) throws IOException {
+        String first = CsvUtil.readRecord(reader);
+        if (first == null || !first.equals(header.substring(0, header.length() - 1))) {
+            throw new IOException(file.getName() + " does not start with the header " + header.trim());
+        }
+    }
+
+    private static String changeOf(String record) throws IOException {
+        int comma = record.indexOf(',');
+        String change = comma < 0 ? record : record.substring(0, comma);
+        if (!change.equals("INSERT") && !change.equals("UPDATE") && !change.equals("DELETE")) {
+            throw new IOException("Unknown change '" + change + "' in incremental export.");
+        }
+        return change;
+    }
+
+    private static int idOf(String row) throws IOException {
+        int comma = row.indexOf(',');
+        try {
+            return Integer.parseInt(comma < 0 ? row : row.substring(0, comma));
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad transaction id in row: " + row);
+        }
+    }
+
+    private static ZipAssembler.Entry await(Future<ZipAssembler.Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Export worker failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static void checkStreamed(long rows) throws IOException {
+        if (rows < 0) {
+            throw new IOException("Could not read transactions from the database.");
+        }
+    }
+
+    // The entries of a zip export; months with no transactions get none
+    private static List<Partition> partition(Collection<YearMonth> months, ExportSplit split) {
+        List<Partition> partitions = new ArrayList<>();
+        if (split == ExportSplit.NONE) {
+            partitions.add(new Partition("transactions.csv", null, null));
+            return partitions;
+        }
+        YearMonth last = null;
+        for (YearMonth month : months) {
+            YearMonth start = split == ExportSplit.YEAR ? YearMonth.of(month.getYear(), 1) : month;
+            if (start.equals(last)) continue;
+            last = start;
+            YearMonth end = split == ExportSplit.YEAR ? start.plusYears(1) : start.plusMonths(1);
+            String period = split == ExportSplit.YEAR ? String.valueOf(start.getYear()) : start.toString();
+            partitions.add(new Partition("transactions_" + period + ".csv",
+                    start.atDay(1).atStartOfDay(), end.atDay(1).atStartOfDay()));
+        }
+        return partitions;
+    }
+
+    private static void deleteTempDir(Path dir) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            System.err.println("Could not delete temporary export files in " + dir + ": " + e.getMessage());
+        }
+    }
+
+    // "-12.05" from -1205 minor units, without going through BigDecimal
+    private static void appendAmount(StringBuilder out, long minorUnits) {
+        if (minorUnits < 0) {
+            out.append('-');
+            minorUnits = -minorUnits;
+        }
+        long cents = minorUnits % 100;
+        out.append(minorUnits / 100).append('.');
+        if (cents < 10) out.append('0');
+        out.append(cents);
+    }
+
+    // "yyyy-MM-dd HH:mm"
+    private static void appendTimestamp(StringBuilder out, LocalDateTime timestamp) {
+        out.append(timestamp.getYear()).append('-');
+        appendTwoDigits(out, timestamp.getMonthValue()).append('-');
+        appendTwoDigits(out, timestamp.getDayOfMonth()).append(' ');
+        appendTwoDigits(out, timestamp.getHour()).append(':');
+        appendTwoDigits(out, timestamp.getMinute());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        if (value < 10) out.append('0');
+        return out.append(value);
+    }
+
     /**
      * Original console method.
      * NOW UPDATED to call the new GUI-capable method.
@@ -125,23 +503,27 @@ public class ExportService {
      * @throws IOException if the file writing fails.
      */
     public boolean exportMonthlySummary(int userId, int year, int month, File file) throws IOException {
-        Map<String, Double> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
-        Double budget = financeService.getMonthlyBudget(userId, year, month);
+        Map<String, Money> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
+        Money budget = financeService.getMonthlyBudget(userId, year, month);
 
         if (breakdown.isEmpty()) return false;
 
         try (FileWriter writer = new FileWriter(file)) {
             writer.write("Category,Amount\n");
             for (var entry : breakdown.entrySet()) {
-                writer.write(entry.getKey() + "," + String.format("%.2f", entry.getValue()) + "\n");
+                writer.write(CsvUtil.escapeField(entry.getKey()) + "," + entry.getValue() + "\n");
             }
 
             // Add budget summary if it exists
             if (budget != null) {
                 writer.write("\nTotal Budget," + budget + "\n");
-                double spent = breakdown.values().stream().mapToDouble(Double::doubleValue).sum();
+                long spentMinor = 0;
+                for (Money amount : breakdown.values()) {
+                    spentMinor += amount.getMinorUnits();
+                }
+                Money spent = Money.ofMinor(spentMinor);
                 writer.write("Total Spent," + spent + "\n");
-                writer.write("Remaining," + (budget - spent) + "\n");
+                writer.write("Remaining," + budget.minus(spent) + "\n");
             }
             return true;
         } catch (IOException e) {
@@ -155,5 +537,127 @@ public class ExportService {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         return "exports/" + prefix + "_" + timestamp + ".csv";
     }
+
+    // One zip entry: the rows with from <= timestamp < to, or every row if from is null
+    private static final class Partition {
+        final String name;
+        final LocalDateTime from;
+        final LocalDateTime to;
+
+        Partition(String name, LocalDateTime from, LocalDateTime to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // Row count and cancel state of one export, shared by its workers
+    private static final class ExportProgress {
+        private final ProgressListener listener;
+        private final long total;
+        private long written;
+        private boolean cancelled;
+        private volatile boolean stopped; // cancelled, or the export failed
+
+        ExportProgress(ProgressListener listener, long total) {
+            this.listener = listener;
+            this.total = total;
+        }
+
+        synchronized void rowsWritten(long rows) {
+            written += rows;
+            listener.onProgress(written, total);
+            if (listener.isCancelled()) {
+                cancelled = true;
+                stopped = true;
+            }
+        }
+
+        synchronized long getWritten() {
+            return written;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+    }
+
+    // Passes rows on to a writer, reporting progress every PROGRESS_INTERVAL rows
+    private static final class CountingHandler implements TransactionHandler {
+        private final TransactionHandler target;
+        private final ExportProgress progress;
+        private int unreported;
+
+        CountingHandler(TransactionHandler target, ExportProgress progress) {
+            this.target = target;
+            this.progress = progress;
+        }
+
+        @Override
+        public boolean handle(TransactionView tx) throws IOException {
+            target.handle(tx);
+            if (++unreported == PROGRESS_INTERVAL) {
+                progress.rowsWritten(unreported);
+                unreported = 0;
+            }
+            return !progress.isStopped();
+        }
+
+        // Counts the rows written since the last report
+        void finish() {
+            if (unreported > 0) {
+                progress.rowsWritten(unreported);
+                unreported = 0;
+            }
+        }
+    }
+
+    // Formats rows into one reused buffer
+    private static final class CsvRowWriter implements TransactionHandler {
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(256);
+        private char[] buffer = new char[256];
+        private String change; // leading Change column of incremental exports
+
+        CsvRowWriter(Writer writer, String header) throws IOException {
+            this.writer = writer;
+            writer.write(header);
+        }
+
+        void setChange(String change) {
+            this.change = change;
+        }
+
+        @Override
+        public boolean handle(TransactionView tx) throws IOException {
+            line.setLength(0);
+            if (change != null) {
+                line.append(change).append(',');
+            }
+            line.append(tx.getTransactionId()).append(',').append(tx.getType()).append(',');
+            appendAmount(line, tx.getAmount().getMinorUnits());
+            line.append(',');
+            CsvUtil.appendField(line, tx.getCategoryName()).append(',');
+            CsvUtil.appendField(line, tx.getAccountName()).append(',');
+            appendTimestamp(line, tx.getTimestamp());
+            line.append(',');
+            CsvUtil.appendField(line, tx.getNote()).append('\n');
+
+            if (buffer.length < line.length()) {
+                buffer = new char[line.length() * 2];
+            }
+            line.getChars(0, line.length(), buffer, 0);
+            writer.write(buffer, 0, line.length());
+            return true;
+        }
+    }
 }
 
@@ -0,0 +1,21 @@
+package personalfinancemanager.service;
+
+/**
+ * How a zip export divides the history into CSV entries.
+ */
+public enum ExportSplit {
+    NONE("One file"),
+    YEAR("One file per year"),
+    MONTH("One file per month");
+
+    private final String label;
+
+    ExportSplit(String label) {
+        this.label = label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
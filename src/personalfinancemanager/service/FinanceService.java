@@ -1,36 +1,260 @@
 package personalfinancemanager.service;
 
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import personalfinancemanager.dao.TransactionDAO;
 import personalfinancemanager.dao.CategoryDAO;
 import personalfinancemanager.dao.AccountDAO;
 import personalfinancemanager.dao.BudgetDAO;
+import personalfinancemanager.dao.TransactionHandler;
+import personalfinancemanager.dao.TransactionSort;
 import personalfinancemanager.models.*;
+import personalfinancemanager.util.BatchLoader;
+import personalfinancemanager.util.DBUtil;
+import personalfinancemanager.util.LruCache;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 public class FinanceService {
+    private static final int MAX_COLUMN_INSERTS = 1000;
+
+    // Loads and saves local snapshots one at a time, off the caller's thread
+    private static final ExecutorService SNAPSHOT_WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-sync");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final TransactionDAO transactionDAO;
     private final CategoryDAO categoryDAO;
     private final AccountDAO accountDAO;
 
+    // Accounts, categories and budgets change rarely but are read on almost every screen,
+    // so they are cached per user and dropped by the writes that change them.
+    private final LruCache<Integer, List<Account>> accountCache;
+    private final LruCache<Integer, List<Category>> categoryCache;
+    private final LruCache<String, BudgetLookup> budgetCache; // "userId:year:month"
+
+    // Computed reports, dropped per (user, month) when a transaction in that month changes.
+    // The TTL bounds staleness if the database is changed outside this service.
+    private final LruCache<String, Map<String, Money>> breakdownCache; // "userId:year:month"
+    private final LruCache<String, Money> netSavingsCache;              // "userId:year:month" or "userId:all"
+
+    // Column store of each recently used user's transactions. Reports scan these primitive
+    // arrays instead of querying, and the write methods below keep them current.
+    private final boolean columnarEnabled;
+    private final LruCache<Integer, TransactionColumns> columnCache;
+
+    private final SnapshotStore snapshotStore; // null when snapshots are disabled
+
+    // Bumped by every invalidation so a read that raced with a write doesn't cache stale data
+    private final AtomicLong cacheVersion = new AtomicLong();
+
+    // Reads below that can't be answered from the caches are also remembered for the rest
+    // of the caller's UnitOfWork, if one is open, so one user action never repeats a query.
+
     public FinanceService() {
         this.transactionDAO = new TransactionDAO();
         this.categoryDAO = new CategoryDAO();
         this.accountDAO = new AccountDAO();
+
+        int maxUsers = DBUtil.getIntProperty("cache.referenceData.maxUsers", 100);
+        this.accountCache = new LruCache<>(maxUsers);
+        this.categoryCache = new LruCache<>(maxUsers);
+        this.budgetCache = new LruCache<>(DBUtil.getIntProperty("cache.budgets.maxEntries", 1000));
+
+        int maxReports = DBUtil.getIntProperty("cache.reports.maxEntries", 500);
+        long reportTtlMs = DBUtil.getLongProperty("cache.reports.ttlSeconds", 600) * 1000L;
+        this.breakdownCache = new LruCache<>(maxReports, reportTtlMs, null);
+        this.netSavingsCache = new LruCache<>(maxReports, reportTtlMs, null);
+
+        this.columnarEnabled = Boolean.parseBoolean(DBUtil.getProperty("analytics.columnar.enabled", "true"));
+        this.columnCache = new LruCache<>(DBUtil.getIntProperty("analytics.columnar.maxUsers", 20));
+        this.snapshotStore = SnapshotStore.fromConfig();
+    }
+
+    /**
+     * Call right after login. Returns at once; in the background the user's local
+     * snapshot (if any) is loaded into the caches so the first screens don't wait on
+     * MySQL, then the caches are reconciled with the database and a fresh snapshot
+     * is saved. Until the reconcile finishes, reports may not show changes made from
+     * another machine since the snapshot was taken.
+     */
+    public void warmUpAsync(int userId) {
+        if (snapshotStore == null) {
+            return;
+        }
+        SNAPSHOT_WORKER.submit(() -> {
+            SnapshotStore.Snapshot snapshot = snapshotStore.read(userId);
+            if (snapshot != null) {
+                if (!snapshot.accounts.isEmpty()) {
+                    accountCache.putIfAbsent(userId, Collections.unmodifiableList(snapshot.accounts));
+                }
+                if (!snapshot.categories.isEmpty()) {
+                    categoryCache.putIfAbsent(userId, Collections.unmodifiableList(snapshot.categories));
+                }
+                if (columnarEnabled) {
+                    columnCache.putIfAbsent(userId, snapshot.columns);
+                }
+            }
+            if (reconcile(userId)) {
+                writeSnapshot(userId);
+            }
+        });
+    }
+
+    /**
+     * Saves the user's snapshot in the background (e.g. on logout).
+     */
+    public void saveSnapshotAsync(int userId) {
+        if (snapshotStore != null) {
+            SNAPSHOT_WORKER.submit(() -> writeSnapshot(userId));
+        }
+    }
+
+    /**
+     * Brings the user's cached data in line with the database. Accounts and categories
+     * are small and simply reloaded. The column store catches up on rows inserted since
+     * its highest id, then its fingerprint (row count, amount total, max id) is compared
+     * with the database's; a mismatch means rows were edited or deleted elsewhere, and
+     * the store is rebuilt.
+     *
+     * @return false if the database could not be reached (the snapshot data is kept)
+     */
+    private boolean reconcile(int userId) {
+        long[] databaseFingerprint = transactionDAO.getFingerprint(userId);
+        if (databaseFingerprint == null) {
+            return false;
+        }
+        cachesChanged();
+        accountCache.remove(userId);
+        categoryCache.remove(userId);
+        getAccountsByUser(userId);
+        getCategoriesByUser(userId);
+
+        TransactionColumns columns = columnCache.get(userId);
+        if (columns != null) {
+            for (Transaction tx : transactionDAO.findAfterId(userId, columns.getMaxId())) {
+                if (!columns.add(tx)) {
+                    columns = null; // raced with a write from this app; rebuild instead
+                    break;
+                }
+            }
+            // Taken after the catch-up, so it covers the rows just added
+            if (columns == null || !Arrays.equals(columns.fingerprint(), transactionDAO.getFingerprint(userId))) {
+                cachesChanged();
+                columnCache.remove(userId);
+            }
+        }
+        dropReports(userId); // may have been computed from the snapshot
+        columns(userId);     // no-op if still loaded, else rebuilt from the database
+        return true;
+    }
+
+    private void writeSnapshot(int userId) {
+        // With the column store off only the reference data is worth keeping
+        TransactionColumns columns = columnarEnabled ? columns(userId) : new TransactionColumns();
+        if (columns != null) {
+            snapshotStore.write(userId, getAccountsByUser(userId), getCategoriesByUser(userId), columns);
+        }
     }
     
     public boolean addTransaction(Transaction transaction) {
-        return transactionDAO.save(transaction);
+        boolean saved = false;
+        BatchLoader<Integer, Account> owners = ownerLoader();
+        try {
+            saved = transactionDAO.save(transaction);
+            return saved;
+        } finally {
+            invalidateReports(transaction.getAccountId(), transaction.getTimestamp(), owners);
+            if (saved) {
+                appendToColumns(owners.getIfLoaded(transaction.getAccountId()), transaction);
+            }
+        }
     }
     
+    // Bulk insert; returns how many were saved
+    public int addTransactions(List<Transaction> transactions) {
+        int saved = 0;
+        try {
+            saved = transactionDAO.saveAll(transactions);
+            return saved;
+        } finally {
+            // Every account's owner in one query, however many accounts the batch touches
+            BatchLoader<Integer, Account> owners = ownerLoader();
+            for (Transaction tx : transactions) {
+                owners.enqueue(tx.getAccountId());
+            }
+            Set<String> seen = new HashSet<>();
+            for (Transaction tx : transactions) {
+                if (seen.add(tx.getAccountId() + ":" + YearMonth.from(tx.getTimestamp()))) {
+                    invalidateReports(tx.getAccountId(), tx.getTimestamp(), owners);
+                }
+            }
+            if (saved > MAX_COLUMN_INSERTS) {
+                // A big (often back-dated) import is cheaper to reload than to insert row by row
+                for (Transaction tx : transactions) {
+                    Account owner = owners.getIfLoaded(tx.getAccountId());
+                    if (owner == null) {
+                        columnCache.clear();
+                        break;
+                    }
+                    columnCache.remove(owner.getUserId());
+                }
+            } else {
+                for (Transaction tx : transactions) {
+                    if (tx.getTransactionId() > 0) { // 0 = not saved
+                        appendToColumns(owners.getIfLoaded(tx.getAccountId()), tx);
+                    }
+                }
+            }
+        }
+    }
+
     public boolean deleteTransaction(int transactionId) {
-        return transactionDAO.delete(transactionId);
+        Transaction before = transactionDAO.findById(transactionId);
+        boolean deleted = false;
+        BatchLoader<Integer, Account> owners = ownerLoader();
+        try {
+            deleted = transactionDAO.delete(transactionId);
+            return deleted;
+        } finally {
+            if (before != null) {
+                invalidateReports(before.getAccountId(), before.getTimestamp(), owners);
+            }
+            if (deleted) {
+                TransactionColumns columns = loadedColumns(before == null ? null : owners.getIfLoaded(before.getAccountId()));
+                if (columns != null) {
+                    columns.remove(transactionId);
+                }
+            }
+        }
     }
 
-    public boolean updateTransactionAmountAndNote(int transactionId, double newAmount, String newNote) {
-        return transactionDAO.updateTransaction(transactionId, newAmount, newNote);
+    public boolean updateTransactionAmountAndNote(int transactionId, Money newAmount, String newNote) {
+        Transaction before = transactionDAO.findById(transactionId);
+        boolean updated = false;
+        BatchLoader<Integer, Account> owners = ownerLoader();
+        try {
+            updated = transactionDAO.updateTransaction(transactionId, newAmount, newNote);
+            return updated;
+        } finally {
+            if (before != null) {
+                invalidateReports(before.getAccountId(), before.getTimestamp(), owners);
+            }
+            if (updated) {
+                TransactionColumns columns = loadedColumns(before == null ? null : owners.getIfLoaded(before.getAccountId()));
+                if (columns != null) {
+                    columns.update(transactionId, newAmount, newNote);
+                }
+            }
+        }
     }
 
     // Fetch all transactions for a user
@@ -38,102 +262,453 @@ public class FinanceService {
         return transactionDAO.findAllByUserId(userId);
     }
 
-    // Total income or expense
-    public double getTotal(String type, int userId) {
-        return transactionDAO.getTotalByType(userId, type.toUpperCase());
+    // One page of the user's history, newest first; pass null for the first page
+    public TransactionPage getTransactionPage(int userId, String cursor, int pageSize) {
+        return UnitOfWork.read("page:" + userId + ":" + cursor + ":" + pageSize,
+                () -> transactionDAO.findPageByUserId(userId, cursor, pageSize));
+    }
+
+    // Streams the user's history, lowest id first, without loading it into memory
+    public long streamTransactions(int userId, TransactionHandler handler) throws IOException {
+        return transactionDAO.streamByUserId(userId, handler);
+    }
+
+    // Same, limited to from <= timestamp < toExclusive; safe to call from several threads at once
+    public long streamTransactions(int userId, LocalDateTime from, LocalDateTime toExclusive,
+                                   TransactionHandler handler) throws IOException {
+        return transactionDAO.streamByRange(userId, from, toExclusive, handler);
+    }
+
+    // Or null on a database error
+    public Integer getTransactionCount(int userId) {
+        return UnitOfWork.read("count:" + userId, () -> transactionDAO.countByUserId(userId));
+    }
+
+    // Incremental exports (see ExportService.exportChanges): {last transaction id, last change id}
+    public long[] getExportWatermark(int userId) {
+        return transactionDAO.findExportWatermark(userId);
+    }
+
+    public boolean saveExportWatermark(int userId, int lastTransactionId, long lastChangeId) {
+        return transactionDAO.saveExportWatermark(userId, lastTransactionId, lastChangeId);
+    }
+
+    // The watermark an export started now would end at
+    public long[] getChangeHighWater(int userId, long afterChangeId) {
+        return transactionDAO.getChangeHighWater(userId, afterChangeId);
+    }
+
+    public long streamTransactionsUpToChange(int userId, long upToChangeId, TransactionHandler handler)
+            throws IOException {
+        return transactionDAO.streamUpToChange(userId, upToChangeId, handler);
+    }
+
+    public long streamInsertedTransactions(int userId, long afterChangeId, long upToChangeId,
+                                           TransactionHandler handler) throws IOException {
+        return transactionDAO.streamChanged(userId, afterChangeId, upToChangeId, true, handler);
+    }
+
+    public long streamChangedTransactions(int userId, long afterChangeId, long upToChangeId,
+                                          TransactionHandler handler) throws IOException {
+        return transactionDAO.streamChanged(userId, afterChangeId, upToChangeId, false, handler);
+    }
+
+    public List<Integer> getDeletedTransactionIds(int userId, long afterChangeId, long upToChangeId) {
+        return transactionDAO.findDeletedIds(userId, afterChangeId, upToChangeId);
+    }
+
+    // Transactions per month (months with none are left out), or null on a database error
+    public Map<YearMonth, Integer> getTransactionCountsByMonth(int userId) {
+        return UnitOfWork.read("monthCounts:" + userId, () -> transactionDAO.countByMonth(userId));
+    }
+
+    // Random-access block of the user's history, sorted by the database; null on a database error
+    public List<TransactionView> getTransactionBlock(int userId, TransactionSort sort, boolean ascending, int offset, int limit) {
+        return transactionDAO.findBlock(userId, sort, ascending, offset, limit);
+    }
+
+    // The block starting skip rows after a known row in the same ordering; null on a database error
+    public List<TransactionView> getTransactionBlockAfter(int userId, TransactionSort sort, boolean ascending,
+                                                          TransactionView after, int skip, int limit) {
+        return transactionDAO.findBlockAfter(userId, sort, ascending, after, skip, limit);
+    }
+
+    // Transactions with from <= timestamp < toExclusive
+    public List<Transaction> getTransactionsByRange(int userId, LocalDateTime from, LocalDateTime toExclusive) {
+        return transactionDAO.findByRange(userId, from, toExclusive);
+    }
+
+    // Total income or expense; null if the query failed
+    public Money getTotal(String type, int userId) {
+        TransactionTotals totals = getTotals(userId);
+        if (totals == null) {
+            return null;
+        }
+        return "INCOME".equalsIgnoreCase(type) ? totals.getIncome() : totals.getExpense();
+    }
+
+    // All-time income, expense and count, in one query; null if the query failed
+    public TransactionTotals getTotals(int userId) {
+        return UnitOfWork.read("totals:" + userId, () -> transactionDAO.sumTotals(userId));
+    }
+
+    // Same for one calendar month
+    public TransactionTotals getTotals(int userId, int year, int month) {
+        String key = monthKey(userId, year, month);
+        return UnitOfWork.read("totals:" + key, () -> transactionDAO.sumMonthTotals(userId, year, month));
+    }
+
+    // Same for from <= timestamp < toExclusive
+    public TransactionTotals getTotals(int userId, LocalDateTime from, LocalDateTime toExclusive) {
+        return UnitOfWork.read("totals:" + userId + ":" + from + ":" + toExclusive,
+                () -> transactionDAO.sumTotals(userId, from, toExclusive));
+    }
+
+    /**
+     * Income and expense per day, week or month for from <= date < toExclusive, optionally
+     * one line per category or account, from one grouped query (or the monthly rollup).
+     * Meant for trend charts and year-over-year reports: no transaction rows are loaded.
+     *
+     * @return the series, or null if the query failed
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public TransactionSeries getSeries(int userId, LocalDate from, LocalDate toExclusive,
+                                       SeriesBucket bucket, SeriesGroup groupBy) {
+        if (!from.isBefore(toExclusive)) {
+            throw new IllegalArgumentException("Empty range: " + from + " to " + toExclusive);
+        }
+        return UnitOfWork.read("series:" + userId + ":" + from + ":" + toExclusive + ":" + bucket + ":" + groupBy,
+                () -> transactionDAO.sumSeries(userId, from, toExclusive, bucket, groupBy));
+    }
+
+    // Income minus expense, or null (not cached) if the totals couldn't be read
+    private static Money netOf(TransactionTotals totals) {
+        return totals == null ? null : totals.getNet();
     }
 
-    public boolean createAccount(int userId, String name, double balance) {
+    public boolean createAccount(int userId, String name, Money balance) {
         var acc = new Account(0, userId, name, balance, LocalDate.now().atStartOfDay());
-        return accountDAO.save(acc);
+        try {
+            return accountDAO.save(acc);
+        } finally {
+            invalidate(accountCache, userId);
+        }
     }
 
+    // Cached per user; the returned list is read-only
     public List<Account> getAccountsByUser(int userId) {
-        return accountDAO.findAllByUserId(userId);
+        return cachedList(accountCache, userId,
+                () -> UnitOfWork.read("accounts:" + userId, () -> accountDAO.findAllByUserId(userId)));
     }
 
     public boolean deleteAccount(int accountId) {
-        return accountDAO.delete(accountId);
+        Account account = accountDAO.findById(accountId);
+        try {
+            return accountDAO.delete(accountId);
+        } finally {
+            // Only the id is known here: drop whichever user's list holds it
+            cachesChanged();
+            accountCache.removeIf((userId, accounts) ->
+                    accounts.stream().anyMatch(a -> a.getAccountId() == accountId));
+            // The account's transactions are deleted with it (ON DELETE CASCADE)
+            invalidateAllReports(account == null ? -1 : account.getUserId());
+        }
     }
     
     public boolean createCategory(int userId, String name) {
         var category = new Category(0, userId, name, LocalDate.now().atStartOfDay());
-        return categoryDAO.save(category);
+        try {
+            return categoryDAO.save(category);
+        } finally {
+            invalidate(categoryCache, userId);
+        }
     }
 
+    // Cached per user; the returned list is read-only
     public List<Category> getCategoriesByUser(int userId) {
-        return categoryDAO.findAllByUserId(userId);
+        return cachedList(categoryCache, userId,
+                () -> UnitOfWork.read("categories:" + userId, () -> categoryDAO.findAllByUserId(userId)));
     }
 
     public boolean deleteCategory(int categoryId) {
-        return categoryDAO.delete(categoryId);
+        int owner = categoryDAO.findUserByCategoryId(categoryId);
+        try {
+            return categoryDAO.delete(categoryId);
+        } finally {
+            cachesChanged();
+            categoryCache.removeIf((userId, categories) ->
+                    categories.stream().anyMatch(c -> c.getCategoryId() == categoryId));
+            // The category's transactions are deleted with it (ON DELETE CASCADE)
+            invalidateAllReports(owner);
+        }
     }
 
+    /**
+     * Hit/miss counters of the reference-data and report caches, one line per cache.
+     */
+    public String getCacheStats() {
+        return "accounts:    " + accountCache + "\n"
+             + "categories:  " + categoryCache + "\n"
+             + "budgets:     " + budgetCache + "\n"
+             + "breakdowns:  " + breakdownCache + "\n"
+             + "net savings: " + netSavingsCache + "\n"
+             + "columns:     " + columnCache + "\n"
+             + "unit of work: " + UnitOfWork.stats();
+    }
 
-    // Generate net savings
-    public double getNetSavings(int userId) {
-        double income = getTotal("INCOME", userId);
-        double expense = getTotal("EXPENSE", userId);
-        return income - expense;
+
+    // Generate net savings; null if it couldn't be computed (failures are not cached)
+    public Money getNetSavings(int userId) {
+        return cached(netSavingsCache, userId + ":all", () -> {
+            TransactionColumns columns = columns(userId);
+            if (columns != null) {
+                long[] totals = columns.sumByType();
+                return Money.ofMinor(totals[0] - totals[1]);
+            }
+            return netOf(getTotals(userId));
+        });
+    }
+    public Money getNetSavingsByMonth(int userId, int year, int month) {
+        return cached(netSavingsCache, monthKey(userId, year, month), () -> {
+            TransactionColumns columns = columns(userId);
+            if (columns != null) {
+                YearMonth period = YearMonth.of(year, month);
+                long[] totals = columns.sumByType((int) period.atDay(1).toEpochDay(),
+                        (int) period.plusMonths(1).atDay(1).toEpochDay());
+                return Money.ofMinor(totals[0] - totals[1]);
+            }
+            // Income and expense for the month in one query (from the rollup)
+            return netOf(getTotals(userId, year, month));
+        });
     }
-    public double getNetSavingsByMonth(int userId, int year, int month) {
 
-        List<Transaction> txList = transactionDAO.findByMonth(userId, year, month);
+    /**
+     * Monthly expense summary grouped by category, largest first (cached, read-only).
+     * Empty if the query failed; that answer is not cached, so the next call tries again.
+     */
+    public Map<String, Money> getMonthlyCategoryBreakdown(int userId, int year, int month) {
+        Map<String, Money> cachedBreakdown = cached(breakdownCache, monthKey(userId, year, month), () -> {
+            Map<String, Money> breakdown = columnarBreakdown(userId, YearMonth.of(year, month));
+            if (breakdown == null) {
+                breakdown = UnitOfWork.read("breakdown:" + monthKey(userId, year, month),
+                        () -> transactionDAO.sumMonthlyExpensesByCategory(userId, year, month));
+            }
+            return breakdown == null ? null : Collections.unmodifiableMap(breakdown);
+        });
+        return cachedBreakdown == null ? Map.of() : cachedBreakdown;
+    }
 
-        double income = 0.0;
-        double expense = 0.0;
+    /**
+     * Expense totals per category name for the month, summed over the user's column store.
+     *
+     * @return null if the column store is disabled or unavailable, or a category name is unknown
+     */
+    private Map<String, Money> columnarBreakdown(int userId, YearMonth period) {
+        TransactionColumns columns = columns(userId);
+        if (columns == null) {
+            return null;
+        }
+        Map<Integer, Money> byCategory = columns.sumByCategory(true,
+                (int) period.atDay(1).toEpochDay(), (int) period.plusMonths(1).atDay(1).toEpochDay());
 
-        // Go through the transactions and sum up income vs. expense
-        for (Transaction tx : txList) {
-            if (tx instanceof Income) {
-                income += tx.getAmount();
-            } else if (tx instanceof Expense) {
-                expense += tx.getAmount();
+        Map<Integer, String> names = new HashMap<>();
+        for (Category category : getCategoriesByUser(userId)) {
+            names.put(category.getCategoryId(), category.getName());
+        }
+        Map<String, Money> breakdown = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Money> entry : byCategory.entrySet()) {
+            String name = names.get(entry.getKey());
+            if (name == null) {
+                return null; // category list is stale or failed to load; let the database answer
             }
+            breakdown.merge(name, entry.getValue(), Money::plus);
         }
-        return income - expense;
+        return breakdown;
     }
 
-    // Monthly expense summary grouped by category
-    public Map<String, Double> getMonthlyCategoryBreakdown(int userId, int year, int month) {
-        List<Transaction> txList = transactionDAO.findByMonth(userId, year, month);
-        List<Category> userCategories = categoryDAO.findAllByUserId(userId);
-
-        Map<Integer, String> categoryIdNameMap = userCategories.stream()
-                .collect(Collectors.toMap(Category::getCategoryId, Category::getName));
+    /**
+     * Recomputes the monthly rollup table from the transactions and drops cached reports.
+     *
+     * @return the number of rollup rows written, or -1 on error
+     */
+    public int rebuildMonthlyTotals() {
+        try {
+            return transactionDAO.rebuildMonthlyTotals();
+        } finally {
+            invalidateAllReports(-1);
+        }
+    }
 
-        return txList.stream()
-                .filter(tx -> tx instanceof Expense)
-                .collect(Collectors.groupingBy(
-                        tx -> categoryIdNameMap.getOrDefault(tx.getCategoryId(), "Unknown"),
-                        Collectors.summingDouble(Transaction::getAmount)
-                ));
+    // Total spent in a month (sum of the category breakdown)
+    public Money getMonthlyExpenseTotal(int userId, int year, int month) {
+        long totalMinor = 0; // exact: whole paise in a primitive accumulator
+        for (Money amount : getMonthlyCategoryBreakdown(userId, year, month).values()) {
+            totalMinor += amount.getMinorUnits();
+        }
+        return Money.ofMinor(totalMinor);
     }
 
     // Top 3 spending categories
-    public List<Map.Entry<String, Double>> getTopCategories(int userId, int year, int month) {
-        Map<String, Double> breakdown = getMonthlyCategoryBreakdown(userId, year, month);
-        return breakdown.entrySet().stream()
-                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+    public List<Map.Entry<String, Money>> getTopCategories(int userId, int year, int month) {
+        // The breakdown already comes back sorted by amount
+        return getMonthlyCategoryBreakdown(userId, year, month).entrySet().stream()
                 .limit(3)
                 .toList();
     }
     
     private final BudgetDAO budgetDAO = new BudgetDAO();
 
-    public boolean setMonthlyBudget(int userId, int year, int month, double amount) {
-        return budgetDAO.saveOrUpdate(userId, year, month, amount);
+    public boolean setMonthlyBudget(int userId, int year, int month, Money amount) {
+        try {
+            return budgetDAO.saveOrUpdate(userId, year, month, amount);
+        } finally {
+            invalidate(budgetCache, monthKey(userId, year, month));
+        }
     }
 
-    public Double getMonthlyBudget(int userId, int year, int month) {
-        return budgetDAO.getBudget(userId, year, month);
+    // Returns null if no budget is set or it couldn't be read; only "no budget" is cached, not the failure
+    public Money getMonthlyBudget(int userId, int year, int month) {
+        String key = monthKey(userId, year, month);
+        BudgetLookup budget = cached(budgetCache, key, () -> UnitOfWork.read("budget:" + key, () -> {
+            BudgetLookup lookup = budgetDAO.getBudget(userId, year, month);
+            // Neither the cache nor the unit of work keeps a null, so the next call asks again
+            return lookup.isFailed() ? null : lookup;
+        }));
+        return budget == null ? null : budget.getAmount();
     }
 
     public boolean isOverBudget(int userId, int year, int month) {
-        double spent = getMonthlyCategoryBreakdown(userId, year, month)
-                         .values().stream().mapToDouble(Double::doubleValue).sum();
-        Double budget = getMonthlyBudget(userId, year, month);
-        return budget != null && spent > budget;
+        Money spent = getMonthlyExpenseTotal(userId, year, month);
+        Money budget = getMonthlyBudget(userId, year, month);
+        return budget != null && spent.compareTo(budget) > 0;
+    }
+
+    /**
+     * Returns the cached list for the user, loading it on a miss. Empty lists are not
+     * cached because the DAOs also return an empty list when the query fails.
+     */
+    private <V> List<V> cachedList(LruCache<Integer, List<V>> cache, int userId, Supplier<List<V>> loader) {
+        List<V> values = cache.get(userId);
+        if (values == null) {
+            long version = cacheVersion.get();
+            values = Collections.unmodifiableList(loader.get());
+            if (!values.isEmpty() && version == cacheVersion.get()) {
+                cache.put(userId, values);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the cached value, computing it on a miss. The result is only stored if
+     * nothing was invalidated while it was being computed.
+     */
+    private <K, V> V cached(LruCache<K, V> cache, K key, Supplier<V> loader) {
+        V value = cache.get(key);
+        if (value == null) {
+            long version = cacheVersion.get();
+            value = loader.get();
+            if (version == cacheVersion.get()) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * The user's column store, built from the database on first use; null when the
+     * store is disabled or could not be loaded.
+     */
+    private TransactionColumns columns(int userId) {
+        if (!columnarEnabled) {
+            return null;
+        }
+        return cached(columnCache, userId,
+                () -> UnitOfWork.read("columns:" + userId, () -> transactionDAO.loadColumns(userId)));
+    }
+
+    /**
+     * The owner's column store if it is already in memory (writes never trigger a load).
+     * An unknown owner drops every store, since the affected user can't be told.
+     */
+    private TransactionColumns loadedColumns(Account owner) {
+        if (owner == null) {
+            columnCache.clear();
+            return null;
+        }
+        return columnCache.get(owner.getUserId());
+    }
+
+    private void appendToColumns(Account owner, Transaction tx) {
+        TransactionColumns columns = loadedColumns(owner);
+        if (columns != null && !columns.add(tx)) {
+            // Out of order or already loaded by a concurrent rebuild: start over on next read
+            columnCache.remove(owner.getUserId());
+        }
+    }
+
+    // Every write ends up here: later reads must not reuse what was read before it
+    private void cachesChanged() {
+        cacheVersion.incrementAndGet();
+        UnitOfWork.invalidate();
+    }
+
+    private <K> void invalidate(LruCache<K, ?> cache, K key) {
+        cachesChanged();
+        cache.remove(key);
+    }
+
+    /**
+     * Drops the cached reports of the month the timestamp falls in, plus the all-time
+     * savings, for the account's owner.
+     *
+     * @param owners account owners looked up by this call (queued ids are fetched together)
+     */
+    private void invalidateReports(int accountId, LocalDateTime timestamp, BatchLoader<Integer, Account> owners) {
+        Account account = owners.load(accountId);
+        cachesChanged();
+        if (account == null) {
+            // Owner unknown (account gone or lookup failed): drop that month for everyone
+            String month = ":" + timestamp.getYear() + ":" + timestamp.getMonthValue();
+            breakdownCache.removeIf((key, value) -> key.endsWith(month));
+            netSavingsCache.removeIf((key, value) -> key.endsWith(month) || key.endsWith(":all"));
+            return;
+        }
+        String key = monthKey(account.getUserId(), timestamp.getYear(), timestamp.getMonthValue());
+        breakdownCache.remove(key);
+        netSavingsCache.remove(key);
+        netSavingsCache.remove(account.getUserId() + ":all");
+    }
+
+    /**
+     * Drops every cached report and column store of the user, or of everyone if userId is -1.
+     */
+    private void invalidateAllReports(int userId) {
+        cachesChanged();
+        if (userId == -1) {
+            breakdownCache.clear();
+            netSavingsCache.clear();
+            columnCache.clear();
+            return;
+        }
+        dropReports(userId);
+        columnCache.remove(userId);
+    }
+
+    private void dropReports(int userId) {
+        cachesChanged();
+        String prefix = userId + ":";
+        breakdownCache.removeIf((key, value) -> key.startsWith(prefix));
+        netSavingsCache.removeIf((key, value) -> key.startsWith(prefix));
+    }
+
+    // Account id -> account, for finding whose caches a write touched
+    private BatchLoader<Integer, Account> ownerLoader() {
+        return new BatchLoader<>(accountDAO::findByIds);
+    }
+
+    private static String monthKey(int userId, int year, int month) {
+        return userId + ":" + year + ":" + month;
     }
 
 
@@ -0,0 +1,43 @@
+package personalfinancemanager.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import: how many rows were saved or skipped, and why rows were skipped.
+ */
+public class ImportResult {
+    // Keep the error list small even if every row of a huge file is bad
+    private static final int MAX_ERRORS = 100;
+
+    private long imported;
+    private long skipped;
+    private boolean cancelled;
+    private final List<String> errors = new ArrayList<>();
+
+    void addImported(long count) { imported += count; }
+
+    void addSkipped(String error) {
+        addSkipped(1, error);
+    }
+
+    void addSkipped(long count, String error) {
+        skipped += count;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    void setCancelled(boolean cancelled) { this.cancelled = cancelled; }
+
+    public long getImported() { return imported; }
+    public long getSkipped() { return skipped; }
+    public boolean isCancelled() { return cancelled; }
+    public List<String> getErrors() { return Collections.unmodifiableList(errors); }
+
+    @Override
+    public String toString() {
+        return "Imported: " + imported + ", Skipped: " + skipped + (cancelled ? " (cancelled)" : "");
+    }
+}
@@ -0,0 +1,406 @@
+package personalfinancemanager.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import personalfinancemanager.models.Account;
+import personalfinancemanager.models.Category;
+import personalfinancemanager.models.Expense;
+import personalfinancemanager.models.Income;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.Transaction;
+import personalfinancemanager.util.CsvUtil;
+import personalfinancemanager.util.DBUtil;
+
+/**
+ * Imports bank statements / earlier exports from CSV, and restores binary backups.
+ *
+ * The file is streamed in chunks of db.batch.size records, so memory stays flat
+ * however large the file is. Each chunk is parsed and validated in parallel, then
+ * handed to a single writer thread that saves it through the batched insert path
+ * while the next chunk is being parsed.
+ *
+ * Expected columns (matched by header name, any order, case-insensitive):
+ * Type, Amount, Category, Account, Timestamp and optionally Note. This is the
+ * layout written by ExportService, so exports can be re-imported. If Type is
+ * missing or blank, a negative Amount is treated as an expense.
+ */
+public class ImportService {
+
+    private static final DateTimeFormatter[] TIMESTAMP_FORMATS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME
+    };
+
+    // Largest value transactions.amount (DECIMAL(12,2)) can hold; a larger one fails
+    // the whole insert batch it is in
+    private static final BigDecimal MAX_AMOUNT = new BigDecimal("9999999999.99");
+    private static final long MAX_AMOUNT_MINOR = 999_999_999_999L;
+
+    private final FinanceService financeService;
+
+    public ImportService(FinanceService financeService) {
+        this.financeService = financeService;
+    }
+
+    /**
+     * Imports a CSV file, or a binary backup (see {@link #importArchive}) if the file
+     * starts with the archive header.
+     *
+     * @param listener receives (bytes read, file size) after every chunk; may cancel between chunks
+     * @throws IOException if the file can't be read or is missing required columns
+     */
+    public ImportResult importTransactions(int userId, File file, ProgressListener listener) throws IOException {
+        try (InputStream probe = new BufferedInputStream(new FileInputStream(file))) {
+            if (TransactionArchive.isArchive(probe)) {
+                return importArchive(userId, file, listener);
+            }
+        }
+        ImportResult result = new ImportResult();
+        int chunkSize = Math.max(1, DBUtil.getIntProperty("db.batch.size", 1000));
+
+        // Name -> ID lookups are built once and shared by the parser threads (read-only)
+        Map<String, Integer> accountIds = accountIdsByName(userId);
+        Map<String, Integer> categoryIds = categoryIdsByName(userId);
+
+        ExecutorService writer = newWriter("csv-import-writer");
+        Future<Integer> pendingWrite = null;
+        int pendingSize = 0;
+        long pendingFirstRow = 0;
+
+        try (FileInputStream in = new FileInputStream(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String header = CsvUtil.readRecord(reader);
+            if (header == null) {
+                return result;
+            }
+            Columns columns = new Columns(CsvUtil.parseRecord(stripBom(header)));
+            long totalBytes = file.length();
+            long rowNumber = 0;
+
+            List<String> records = new ArrayList<>(chunkSize);
+            while (true) {
+                String record = CsvUtil.readRecord(reader);
+                if (record != null && !record.isBlank()) {
+                    records.add(record);
+                }
+                boolean endOfFile = record == null;
+                if (records.size() < chunkSize && !(endOfFile && !records.isEmpty())) {
+                    if (endOfFile) break;
+                    continue;
+                }
+
+                if (listener.isCancelled()) {
+                    result.setCancelled(true);
+                    break;
+                }
+
+                long firstRow = rowNumber + 1;
+                List<String> chunk = records;
+                List<ParsedRow> parsed = IntStream.range(0, chunk.size()).parallel()
+                        .mapToObj(i -> parseRow(chunk.get(i), firstRow + i, columns, accountIds, categoryIds))
+                        .toList();
+                rowNumber += chunk.size();
+                records = new ArrayList<>(chunkSize);
+
+                List<Transaction> valid = new ArrayList<>(parsed.size());
+                for (ParsedRow row : parsed) {
+                    if (row.transaction != null) {
+                        valid.add(row.transaction);
+                    } else {
+                        result.addSkipped(row.error);
+                    }
+                }
+
+                // Keep at most one chunk in flight on the writer
+                collect(pendingWrite, pendingSize, pendingFirstRow, result);
+                pendingWrite = valid.isEmpty() ? null : writer.submit(() -> financeService.addTransactions(valid));
+                pendingSize = valid.size();
+                pendingFirstRow = firstRow;
+
+                listener.onProgress(in.getChannel().position(), totalBytes);
+                if (endOfFile) break;
+            }
+            collect(pendingWrite, pendingSize, pendingFirstRow, result);
+            if (!result.isCancelled()) {
+                listener.onProgress(totalBytes, totalBytes);
+            }
+        } finally {
+            writer.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Restores a binary backup written by the ARCHIVE export. As with CSV, accounts and
+     * categories are matched by name and rows that don't match are skipped; transactions
+     * get new ids. Blocks are decoded on this thread while the previous one is saved.
+     *
+     * @param listener receives (bytes read, file size) after every block; may cancel between blocks
+     * @throws IOException if the file is not an archive, or is truncated or corrupt (the
+     *                     message says how many rows were saved before that point)
+     */
+    public ImportResult importArchive(int userId, File file, ProgressListener listener) throws IOException {
+        ImportResult result = new ImportResult();
+        Map<String, Integer> accountIds = accountIdsByName(userId);
+        Map<String, Integer> categoryIds = categoryIdsByName(userId);
+
+        ExecutorService writer = newWriter("archive-import-writer");
+        Future<Integer> pendingWrite = null;
+        int pendingSize = 0;
+        long pendingFirstRow = 0;
+
+        try (FileInputStream in = new FileInputStream(file);
+             TransactionArchive.Reader reader = new TransactionArchive.Reader(in)) {
+            long totalBytes = file.length();
+            long rowNumber = 0;
+            while (true) {
+                TransactionArchive.Block block;
+                try {
+                    block = reader.nextBlock();
+                } catch (IOException e) {
+                    collect(pendingWrite, pendingSize, pendingFirstRow, result);
+                    throw new IOException(e.getMessage() + " " + result.getImported()
+                            + " transaction(s) were imported before it.", e);
+                }
+                if (block == null) break;
+                if (listener.isCancelled()) {
+                    result.setCancelled(true);
+                    break;
+                }
+
+                // Each dictionary entry is looked up once per block, not once per row
+                Integer[] blockAccounts = resolve(block.accountNames, accountIds);
+                Integer[] blockCategories = resolve(block.categoryNames, categoryIds);
+                long firstRow = rowNumber + 1;
+                List<Transaction> valid = new ArrayList<>(block.rows);
+                for (int i = 0; i < block.rows; i++) {
+                    Integer accountId = blockAccounts[block.accountCodes[i]];
+                    Integer categoryId = blockCategories[block.categoryCodes[i]];
+                    if (accountId == null) {
+                        result.addSkipped(ParsedRow.error(firstRow + i,
+                                "unknown account '" + block.getAccountName(i) + "'").error);
+                    } else if (categoryId == null) {
+                        result.addSkipped(ParsedRow.error(firstRow + i,
+                                "unknown category '" + block.getCategoryName(i) + "'").error);
+                    } else if (block.amounts[i] <= 0) {
+                        result.addSkipped(ParsedRow.error(firstRow + i, "amount must be positive").error);
+                    } else if (block.amounts[i] > MAX_AMOUNT_MINOR) {
+                        result.addSkipped(ParsedRow.error(firstRow + i, "amount out of range").error);
+                    } else {
+                        Money amount = Money.ofMinor(block.amounts[i]);
+                        valid.add(block.isExpense(i)
+                                ? new Expense(0, accountId, categoryId, amount, block.getTimestamp(i), block.getNote(i), null)
+                                : new Income(0, accountId, categoryId, amount, block.getTimestamp(i), block.getNote(i), null));
+                    }
+                }
+                rowNumber += block.rows;
+
+                // Keep at most one block in flight on the writer
+                collect(pendingWrite, pendingSize, pendingFirstRow, result);
+                pendingWrite = valid.isEmpty() ? null : writer.submit(() -> financeService.addTransactions(valid));
+                pendingSize = valid.size();
+                pendingFirstRow = firstRow;
+
+                listener.onProgress(in.getChannel().position(), totalBytes);
+            }
+            collect(pendingWrite, pendingSize, pendingFirstRow, result);
+            if (!result.isCancelled()) {
+                listener.onProgress(totalBytes, totalBytes);
+            }
+        } finally {
+            writer.shutdownNow();
+        }
+        return result;
+    }
+
+    // The user's ids for a block's name dictionary; null where the name is unknown
+    private static Integer[] resolve(String[] names, Map<String, Integer> ids) {
+        Integer[] resolved = new Integer[names.length];
+        for (int i = 0; i < names.length; i++) {
+            resolved[i] = ids.get(normalise(names[i]));
+        }
+        return resolved;
+    }
+
+    private Map<String, Integer> accountIdsByName(int userId) {
+        Map<String, Integer> accountIds = new HashMap<>();
+        for (Account account : financeService.getAccountsByUser(userId)) {
+            accountIds.put(normalise(account.getName()), account.getAccountId());
+        }
+        return accountIds;
+    }
+
+    private Map<String, Integer> categoryIdsByName(int userId) {
+        Map<String, Integer> categoryIds = new HashMap<>();
+        for (Category category : financeService.getCategoriesByUser(userId)) {
+            categoryIds.put(normalise(category.getName()), category.getCategoryId());
+        }
+        return categoryIds;
+    }
+
+    // Saves chunks through the batched insert path, one at a time
+    private static ExecutorService newWriter(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private void collect(Future<Integer> write, int size, long firstRow, ImportResult result) throws IOException {
+        if (write == null) return;
+        try {
+            int saved = write.get();
+            result.addImported(saved);
+            if (saved < size) {
+                result.addSkipped(size - saved, "Database error while saving the chunk starting at row " + firstRow
+                        + "; " + (size - saved) + " row(s) not saved.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    static ParsedRow parseRow(String record, long rowNumber, Columns columns,
+                               Map<String, Integer> accountIds, Map<String, Integer> categoryIds) {
+        List<String> fields = CsvUtil.parseRecord(record);
+        try {
+            BigDecimal amount = new BigDecimal(columns.get(fields, columns.amount).replace(",", ""));
+            String type = columns.type >= 0 ? columns.get(fields, columns.type).toUpperCase(Locale.ROOT) : "";
+            if (type.isEmpty()) {
+                type = amount.signum() < 0 ? "EXPENSE" : "INCOME";
+            }
+            amount = amount.abs().stripTrailingZeros();
+            if (!type.equals("INCOME") && !type.equals("EXPENSE")) {
+                return ParsedRow.error(rowNumber, "unknown type '" + type + "'");
+            }
+            if (amount.signum() == 0 || amount.scale() > 2) {
+                return ParsedRow.error(rowNumber, "amount must be positive with at most 2 decimals");
+            }
+            if (amount.compareTo(MAX_AMOUNT) > 0) {
+                return ParsedRow.error(rowNumber, "amount out of range");
+            }
+
+            String accountName = columns.get(fields, columns.account);
+            Integer accountId = accountIds.get(normalise(accountName));
+            if (accountId == null) {
+                return ParsedRow.error(rowNumber, "unknown account '" + accountName + "'");
+            }
+            String categoryName = columns.get(fields, columns.category);
+            Integer categoryId = categoryIds.get(normalise(categoryName));
+            if (categoryId == null) {
+                return ParsedRow.error(rowNumber, "unknown category '" + categoryName + "'");
+            }
+
+            LocalDateTime timestamp = parseTimestamp(columns.get(fields, columns.timestamp));
+            String note = columns.note >= 0 ? columns.get(fields, columns.note) : "";
+
+            Transaction tx = type.equals("INCOME")
+                    ? new Income(0, accountId, categoryId, Money.of(amount), timestamp, note, null)
+                    : new Expense(0, accountId, categoryId, Money.of(amount), timestamp, note, null);
+            return ParsedRow.ok(tx);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return ParsedRow.error(rowNumber, "invalid amount");
+        } catch (DateTimeParseException e) {
+            return ParsedRow.error(rowNumber, "invalid timestamp '" + e.getParsedString() + "'");
+        } catch (IndexOutOfBoundsException e) {
+            return ParsedRow.error(rowNumber, "missing columns");
+        }
+    }
+
+    private static LocalDateTime parseTimestamp(String value) {
+        for (DateTimeFormatter format : TIMESTAMP_FORMATS) {
+            try {
+                return LocalDateTime.parse(value, format);
+            } catch (DateTimeParseException ignored) {
+                // try the next format
+            }
+        }
+        return LocalDate.parse(value).atStartOfDay();
+    }
+
+    private static String normalise(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String stripBom(String header) {
+        return !header.isEmpty() && header.charAt(0) == '\uFEFF' ? header.substring(1) : header;
+    }
+
+    /**
+     * Column positions resolved from the header row.
+     */
+    static final class Columns {
+        final int type;
+        final int amount;
+        final int category;
+        final int account;
+        final int timestamp;
+        final int note;
+
+        Columns(List<String> header) throws IOException {
+            List<String> names = header.stream().map(ImportService::normalise).toList();
+            type = names.indexOf("type");
+            amount = require(names, "amount");
+            category = require(names, "category");
+            account = require(names, "account");
+            timestamp = require(names, "timestamp");
+            note = names.indexOf("note");
+        }
+
+        private static int require(List<String> names, String column) throws IOException {
+            int index = names.indexOf(column);
+            if (index < 0) {
+                throw new IOException("CSV header is missing the '" + column + "' column.");
+            }
+            return index;
+        }
+
+        String get(List<String> fields, int index) {
+            return fields.get(index).trim();
+        }
+    }
+
+    static final class ParsedRow {
+        final Transaction transaction;
+        final String error;
+
+        private ParsedRow(Transaction transaction, String error) {
+            this.transaction = transaction;
+            this.error = error;
+        }
+
+        static ParsedRow ok(Transaction transaction) {
+            return new ParsedRow(transaction, null);
+        }
+
+        static ParsedRow error(long rowNumber, String message) {
+            return new ParsedRow(null, "Row " + rowNumber + ": " + message);
+        }
+    }
+}
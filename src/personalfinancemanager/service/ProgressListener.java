@@ -0,0 +1,24 @@
+package personalfinancemanager.service;
+
+/**
+ * Callback for long-running imports/exports so a UI can show progress and cancel.
+ * Called from the worker thread, not the Swing Event Dispatch Thread.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    ProgressListener NONE = (done, total) -> { };
+
+    /**
+     * @param done  units processed so far
+     * @param total total units, or -1 if unknown
+     */
+    void onProgress(long done, long total);
+
+    /**
+     * Polled between chunks; returning true stops the operation early.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,260 @@
+package personalfinancemanager.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import personalfinancemanager.models.Account;
+import personalfinancemanager.models.Category;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionColumns;
+import personalfinancemanager.util.DBUtil;
+
+/**
+ * Local binary snapshot of one user's accounts, categories and transaction columns,
+ * so the next login can start from disk instead of cold MySQL queries.
+ *
+ * Files are named snapshot.dir/user-&lt;id&gt;-&lt;saved millis&gt;.snap and the newest
+ * one is opened with FileChannel.map. A new snapshot is written to a temp file and
+ * renamed into place, so a crash never leaves a half-written snapshot behind; older
+ * files are deleted afterwards. (Writing a new name rather than replacing the old
+ * file matters on Windows, where a file that is still mapped can't be replaced.)
+ * A file with the wrong magic, version or user id is ignored. The data is stored
+ * unencrypted.
+ *
+ * Settings (config.properties):
+ *   snapshot.enabled - read/write snapshots (default true)
+ *   snapshot.dir     - folder for the files (default snapshots)
+ */
+final class SnapshotStore {
+
+    private static final int MAGIC = 0x50464D53; // "PFMS"
+    private static final int FORMAT_VERSION = 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final String FILE_PREFIX = "user-";
+    private static final String FILE_SUFFIX = ".snap";
+
+    private final Path dir;
+
+    SnapshotStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @return the configured store, or null if snapshots are disabled
+     */
+    static SnapshotStore fromConfig() {
+        if (!Boolean.parseBoolean(DBUtil.getProperty("snapshot.enabled", "true"))) {
+            return null;
+        }
+        return new SnapshotStore(Paths.get(DBUtil.getProperty("snapshot.dir", "snapshots")));
+    }
+
+    /**
+     * @return the user's snapshot, or null if there is none or it can't be used
+     */
+    Snapshot read(int userId) {
+        List<Path> files = listFiles(userId);
+        if (files.isEmpty()) {
+            return null; // first login on this machine
+        }
+        Path file = files.get(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION || in.getInt() != userId) {
+                System.err.println("[!] Ignoring snapshot " + file + ": different format or user.");
+                return null;
+            }
+            long savedAtMillis = in.getLong();
+
+            int accountCount = in.getInt();
+            List<Account> accounts = new ArrayList<>(accountCount);
+            for (int i = 0; i < accountCount; i++) {
+                int accountId = in.getInt();
+                String name = getString(in);
+                Money balance = Money.ofMinor(in.getLong());
+                accounts.add(new Account(accountId, userId, name, balance, getTimestamp(in)));
+            }
+
+            int categoryCount = in.getInt();
+            List<Category> categories = new ArrayList<>(categoryCount);
+            for (int i = 0; i < categoryCount; i++) {
+                int categoryId = in.getInt();
+                String name = getString(in);
+                categories.add(new Category(categoryId, userId, name, getTimestamp(in)));
+            }
+
+            TransactionColumns columns = TransactionColumns.readFrom(in);
+            return new Snapshot(accounts, categories, columns, savedAtMillis);
+        } catch (NoSuchFileException e) {
+            return null; // replaced by a concurrent write
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[!] Ignoring unreadable snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the user's snapshot. The columns' lock is held while they are encoded.
+     *
+     * @return true if the snapshot was written
+     */
+    synchronized boolean write(int userId, List<Account> accounts, List<Category> categories, TransactionColumns columns) {
+        try {
+            Files.createDirectories(dir);
+            List<Path> previous = listFiles(userId);
+            long savedAt = System.currentTimeMillis();
+            if (!previous.isEmpty()) {
+                savedAt = Math.max(savedAt, savedAtOf(previous.get(0)) + 1); // keep names ordered
+            }
+            Path file = dir.resolve(FILE_PREFIX + userId + "-" + savedAt + FILE_SUFFIX);
+            Path temp = dir.resolve(file.getFileName() + ".tmp");
+
+            ByteBuffer out;
+            ByteBuffer head = encodeReferenceData(userId, savedAt, accounts, categories);
+            synchronized (columns) {
+                out = ByteBuffer.allocate(head.remaining() + columns.encodedSize());
+                out.put(head);
+                columns.writeTo(out);
+            }
+            out.flip();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file);
+            }
+
+            for (Path old : previous) {
+                try {
+                    Files.deleteIfExists(old);
+                } catch (IOException e) {
+                    // Still mapped (Windows) or locked: it is retried after the next write
+                }
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error writing snapshot for user " + userId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // The user's snapshot files, newest first
+    private List<Path> listFiles(int userId) {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, FILE_PREFIX + userId + "-*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                if (savedAtOf(file) >= 0) files.add(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing snapshots: " + e.getMessage());
+        }
+        files.sort(Comparator.comparingLong(SnapshotStore::savedAtOf).reversed());
+        return files;
+    }
+
+    // The millis in "user-<id>-<millis>.snap", or -1 if the name doesn't match
+    private static long savedAtOf(Path file) {
+        String name = file.getFileName().toString();
+        int dash = name.lastIndexOf('-');
+        try {
+            return Long.parseLong(name.substring(dash + 1, name.length() - FILE_SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private static ByteBuffer encodeReferenceData(int userId, long savedAt, List<Account> accounts, List<Category> categories) {
+        List<byte[]> accountNames = new ArrayList<>();
+        List<byte[]> categoryNames = new ArrayList<>();
+        int size = 4 * 3 + 8 + 4 + 4;
+        for (Account account : accounts) {
+            byte[] name = account.getName().getBytes(StandardCharsets.UTF_8);
+            accountNames.add(name);
+            size += 4 + 4 + name.length + 8 + 8;
+        }
+        for (Category category : categories) {
+            byte[] name = category.getName().getBytes(StandardCharsets.UTF_8);
+            categoryNames.add(name);
+            size += 4 + 4 + name.length + 8;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(userId).putLong(savedAt);
+        out.putInt(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            Account account = accounts.get(i);
+            out.putInt(account.getAccountId());
+            out.putInt(accountNames.get(i).length).put(accountNames.get(i));
+            out.putLong(account.getBalance().getMinorUnits());
+            putTimestamp(out, account.getCreatedAt());
+        }
+        out.putInt(categories.size());
+        for (int i = 0; i < categories.size(); i++) {
+            Category category = categories.get(i);
+            out.putInt(category.getCategoryId());
+            out.putInt(categoryNames.get(i).length).put(categoryNames.get(i));
+            putTimestamp(out, category.getCreatedAt());
+        }
+        return out.flip();
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTimestamp(ByteBuffer out, LocalDateTime timestamp) {
+        out.putLong(timestamp == null ? NO_TIMESTAMP : timestamp.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static LocalDateTime getTimestamp(ByteBuffer in) {
+        long seconds = in.getLong();
+        return seconds == NO_TIMESTAMP ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * What was read back from a snapshot file.
+     */
+    static final class Snapshot {
+        final List<Account> accounts;
+        final List<Category> categories;
+        final TransactionColumns columns;
+        final long savedAtMillis;
+
+        Snapshot(List<Account> accounts, List<Category> categories, TransactionColumns columns, long savedAtMillis) {
+            this.accounts = accounts;
+            this.categories = categories;
+            this.columns = columns;
+            this.savedAtMillis = savedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package personalfinancemanager.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Scope of one user action (a menu choice, a panel load or save). While it is open
+ * on a thread, FinanceService answers a repeated read from the first answer instead
+ * of going back to the database, e.g. the budget and month breakdown that
+ * isOverBudget and the budget screen both ask for. Any write through FinanceService
+ * forgets everything read so far in the scope, so a read after a write sees it.
+ *
+ * Run the action through it on the thread that makes the calls:
+ * <pre>
+ *   UnitOfWork.run(() -> ...);
+ *   T result = UnitOfWork.call(() -> ...);
+ * </pre>
+ * or open it with begin() and close it in a finally block. Scopes nest: an inner
+ * scope joins the outer one. Outside a scope every read goes to the caches and the
+ * database as before.
+ */
+public final class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private final Map<String, Object> reads = new HashMap<>();
+    private int depth;
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Runs the action in a scope (joining the current one if there is one).
+     */
+    public static void run(Runnable action) {
+        UnitOfWork scope = begin();
+        try {
+            action.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Runs the task in a scope and returns its result; exceptions are passed on.
+     */
+    public static <T> T call(Callable<T> task) throws Exception {
+        UnitOfWork scope = begin();
+        try {
+            return task.call();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Opens a scope on the current thread, or joins the one already open.
+     */
+    public static UnitOfWork begin() {
+        UnitOfWork scope = CURRENT.get();
+        if (scope == null) {
+            scope = new UnitOfWork();
+            CURRENT.set(scope);
+        }
+        scope.depth++;
+        return scope;
+    }
+
+    /**
+     * Leaves the scope; the outermost close drops everything it remembered.
+     */
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Returns what the loader returned the first time this key was read in the
+     * current scope, calling it only on the first read. A null answer (the DAOs'
+     * "query failed") is not remembered, so the next read asks again.
+     * Without a scope the loader is simply called.
+     */
+    @SuppressWarnings("unchecked")
+    static <V> V read(String key, Supplier<V> loader) {
+        UnitOfWork scope = CURRENT.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        V value = (V) scope.reads.get(key);
+        if (value != null) {
+            HITS.incrementAndGet();
+            return value;
+        }
+        MISSES.incrementAndGet();
+        value = loader.get();
+        if (value != null) {
+            scope.reads.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Forgets the reads of the current thread's scope, if any. Called after every write.
+     */
+    static void invalidate() {
+        UnitOfWork scope = CURRENT.get();
+        if (scope != null) {
+            scope.reads.clear();
+        }
+    }
+
+    /**
+     * Repeated reads answered from a scope (hits) and first reads (misses), over all threads.
+     */
+    static String stats() {
+        return String.format("hits=%d, misses=%d", HITS.get(), MISSES.get());
+    }
+}
@@ -0,0 +1,179 @@
+package personalfinancemanager.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Builds a zip file from entries that were already deflated into temp files, so
+ * several threads can compress their part of an export at the same time and the
+ * archive is only stitched together at the end (java.util.zip.ZipOutputStream
+ * can't do this: it always compresses the bytes it is given itself).
+ *
+ * No Zip64: an archive is limited to 65535 entries and 4 GB per entry and offset,
+ * which a split export never gets near. Use the gzip export for anything bigger.
+ */
+final class ZipAssembler implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;      // 2.0: deflate
+    private static final int UTF8_NAMES = 1 << 11;
+    private static final int DEFLATED = 8;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final OutputStream out;
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private final int dosTime;
+    private final int dosDate;
+    private long offset;
+    private int entries;
+
+    ZipAssembler(Path file, LocalDateTime modified) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(file.toFile()), 64 * 1024);
+        this.dosTime = modified.getHour() << 11 | modified.getMinute() << 5 | modified.getSecond() / 2;
+        this.dosDate = Math.max(0, modified.getYear() - 1980) << 9 | modified.getMonthValue() << 5 | modified.getDayOfMonth();
+    }
+
+    /**
+     * Opens a stream that deflates into entry.data. Closing it fills in the entry's
+     * checksum and sizes; only then can the entry be {@link #add added}.
+     */
+    static OutputStream deflate(Entry entry) throws IOException {
+        return new EntryOutputStream(entry);
+    }
+
+    /**
+     * Appends a finished entry, copying its compressed bytes as they are.
+     */
+    void add(Entry entry) throws IOException {
+        if (entry.size > MAX_SIZE || entry.compressedSize > MAX_SIZE || offset > MAX_SIZE || entries == MAX_ENTRIES) {
+            throw new IOException("Export too large for a zip file; use the gzip format instead.");
+        }
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer local = littleEndian(LOCAL_HEADER_SIZE + name.length);
+        local.putInt(LOCAL_HEADER_SIGNATURE).putShort((short) VERSION);
+        putEntryFields(local, entry, name.length);
+        local.put(name);
+        out.write(local.array());
+        Files.copy(entry.data, out);
+
+        ByteBuffer central = littleEndian(CENTRAL_HEADER_SIZE + name.length);
+        central.putInt(CENTRAL_HEADER_SIGNATURE).putShort((short) VERSION).putShort((short) VERSION);
+        putEntryFields(central, entry, name.length);
+        central.putShort((short) 0)  // comment length
+               .putShort((short) 0)  // disk number
+               .putShort((short) 0)  // internal attributes
+               .putInt(0)            // external attributes
+               .putInt((int) offset);
+        central.put(name);
+        centralDirectory.write(central.array());
+
+        offset += local.capacity() + entry.compressedSize;
+        entries++;
+    }
+
+    /**
+     * Writes the central directory and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try (OutputStream target = out) {
+            if (offset > MAX_SIZE) {
+                throw new IOException("Export too large for a zip file; use the gzip format instead.");
+            }
+            centralDirectory.writeTo(target);
+            ByteBuffer end = littleEndian(22);
+            end.putInt(END_OF_CENTRAL_SIGNATURE)
+               .putShort((short) 0).putShort((short) 0)  // this disk, directory disk
+               .putShort((short) entries).putShort((short) entries)
+               .putInt(centralDirectory.size())
+               .putInt((int) offset)
+               .putShort((short) 0);                    // comment length
+            target.write(end.array());
+        }
+    }
+
+    // The fields shared by the local and the central header, from "flags" to "extra length"
+    private void putEntryFields(ByteBuffer header, Entry entry, int nameLength) {
+        header.putShort((short) UTF8_NAMES).putShort((short) DEFLATED)
+              .putShort((short) dosTime).putShort((short) dosDate)
+              .putInt((int) entry.crc)
+              .putInt((int) entry.compressedSize)
+              .putInt((int) entry.size)
+              .putShort((short) nameLength)
+              .putShort((short) 0);
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * One file in the archive and the temp file holding its raw deflate data.
+     */
+    static final class Entry {
+        final String name;
+        final Path data;
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        Entry(String name, Path data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    // Raw deflate (no zlib header) plus the CRC-32 of the uncompressed bytes, as zip expects
+    private static final class EntryOutputStream extends DeflaterOutputStream {
+        private final Entry entry;
+        private final CRC32 crc = new CRC32();
+        private boolean closed;
+
+        EntryOutputStream(Entry entry) throws IOException {
+            super(new BufferedOutputStream(new FileOutputStream(entry.data.toFile()), 64 * 1024),
+                  new Deflater(Deflater.DEFAULT_COMPRESSION, true), 64 * 1024);
+            this.entry = entry;
+        }
+
+        // write(int) goes through here as well
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                finish();
+                entry.crc = crc.getValue();
+                entry.size = def.getBytesRead();
+                entry.compressedSize = def.getBytesWritten();
+            } finally {
+                def.end();
+                out.close();
+            }
+        }
+    }
+}
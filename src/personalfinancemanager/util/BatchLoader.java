@@ -0,0 +1,93 @@
+package personalfinancemanager.util;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Turns many point lookups into one batch query. Keys are queued with
+ * {@link #enqueue}; the first {@link #load} then fetches every queued key with a
+ * single call to the batch function (e.g. a WHERE id IN (...) query), and every
+ * answer is kept for the loader's lifetime, including "not found".
+ *
+ * Create one per bulk operation and let it go afterwards: nothing is ever
+ * invalidated. Not thread-safe.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final Map<K, V> loaded = new HashMap<>();
+    private final Set<K> pending = new LinkedHashSet<>();
+    private int batches;
+
+    /**
+     * @param batchFunction returns the values found for the given keys; keys missing
+     *                      from the result load as null
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * Queues a key for the next batch, unless it is already loaded.
+     */
+    public void enqueue(K key) {
+        if (!loaded.containsKey(key)) {
+            pending.add(key);
+        }
+    }
+
+    public void enqueueAll(Collection<? extends K> keys) {
+        for (K key : keys) {
+            enqueue(key);
+        }
+    }
+
+    /**
+     * Returns the value for the key, first running one batch for it and every
+     * queued key if it isn't loaded yet.
+     */
+    public V load(K key) {
+        if (!loaded.containsKey(key)) {
+            pending.add(key);
+            dispatch();
+        }
+        return loaded.get(key);
+    }
+
+    /**
+     * Fetches every queued key now.
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Set<K> keys = new LinkedHashSet<>(pending);
+        pending.clear();
+        Map<K, V> found = batchFunction.apply(keys);
+        for (K key : keys) {
+            loaded.put(key, found.get(key));
+        }
+        batches++;
+    }
+
+    /**
+     * The value for a key that was already loaded, or null; never queries.
+     */
+    public V getIfLoaded(K key) {
+        return loaded.get(key);
+    }
+
+    /**
+     * Number of batch calls made so far.
+     */
+    public int getBatchCount() {
+        return batches;
+    }
+}
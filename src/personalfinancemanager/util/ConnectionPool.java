@@ -0,0 +1,642 @@
+package personalfinancemanager.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small, bounded JDBC connection pool used behind {@link DBUtil#getConnection()}.
+ *
+ * Connections handed out are proxies: calling close() returns the physical
+ * connection to the pool instead of closing it, so the DAOs can keep using
+ * try-with-resources exactly as before. Every borrow gets its own proxy, and a
+ * proxy rejects every call once it is closed, so a handle kept past close()
+ * can't touch the connection's next borrower.
+ *
+ * Each pooled connection also keeps an LRU cache of its prepared statements,
+ * keyed by SQL text. prepareStatement(sql) on a cache hit returns the already
+ * parsed statement behind a new proxy, and closing it resets the statement
+ * (parameters, fetch size, limits) instead of closing it. Statements still open
+ * when the connection is returned are closed then.
+ *
+ * All settings come from config.properties (see the db.pool.* and
+ * db.statementCache.* keys).
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final Properties connectionProps;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final boolean validateOnBorrow;
+    private final int validationTimeoutSec;
+    private final long leakDetectionThresholdMs;
+    private final int statementCacheSize;
+
+    // One permit per connection that may be checked out at the same time.
+    private final Semaphore permits;
+    // Most recently returned connections sit at the front (LIFO keeps them warm).
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    private volatile boolean shutdown = false;
+
+    public ConnectionPool(Properties config) {
+        this.url = config.getProperty("db.url");
+        this.connectionProps = new Properties();
+        connectionProps.setProperty("user", config.getProperty("db.user", ""));
+        connectionProps.setProperty("password", config.getProperty("db.password", ""));
+        // Lets the driver send a JDBC batch of INSERTs as one multi-row INSERT
+        connectionProps.setProperty("rewriteBatchedStatements",
+                config.getProperty("db.rewriteBatchedStatements", "true"));
+
+        this.maxSize = Math.max(1, intProp(config, "db.pool.maxSize", 10));
+        this.minSize = Math.min(maxSize, Math.max(0, intProp(config, "db.pool.minSize", 1)));
+        this.idleTimeoutMs = longProp(config, "db.pool.idleTimeoutMs", 300_000L);
+        this.borrowTimeoutMs = longProp(config, "db.pool.borrowTimeoutMs", 10_000L);
+        this.validateOnBorrow = Boolean.parseBoolean(config.getProperty("db.pool.validateOnBorrow", "true"));
+        this.validationTimeoutSec = intProp(config, "db.pool.validationTimeoutSec", 2);
+        this.leakDetectionThresholdMs = longProp(config, "db.pool.leakDetectionThresholdMs", 60_000L);
+        this.statementCacheSize = Math.max(0, intProp(config, "db.statementCache.size", 50));
+        long maintenanceIntervalMs = Math.max(1_000L, longProp(config, "db.pool.maintenanceIntervalMs", 30_000L));
+
+        this.permits = new Semaphore(maxSize, true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        // The first run also pre-fills the pool up to minSize, off the caller's thread.
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, 0, maintenanceIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting at most db.pool.borrowTimeoutMs for one to free up.
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMs + " ms waiting for a database connection ("
+                        + active.size() + "/" + maxSize + " in use).");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeIdleOrCreate();
+            pooled.markBorrowed(leakDetectionThresholdMs > 0);
+            active.add(pooled);
+            borrowCount.incrementAndGet();
+            return new ConnectionHandle(pooled).proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (!validateOnBorrow || pooled.isUsable(validationTimeoutSec)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return create();
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProps);
+        openConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (shutdown || !pooled.resetForReuse()) {
+                discard(pooled);
+            } else {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        openConnections.decrementAndGet();
+        pooled.closePhysical();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Evicts connections idle for longer than db.pool.idleTimeoutMs (never going below minSize),
+     * tops the pool back up to minSize and reports connections held past the leak threshold.
+     */
+    private void runMaintenance() {
+        if (shutdown) return;
+        try {
+            long now = System.currentTimeMillis();
+
+            // Oldest idle connections are at the tail.
+            PooledConnection candidate;
+            while (openConnections.get() > minSize && (candidate = idle.peekLast()) != null
+                    && now - candidate.lastReturnedAt > idleTimeoutMs) {
+                if (idle.removeLastOccurrence(candidate)) {
+                    evictedCount.incrementAndGet();
+                    discard(candidate);
+                }
+            }
+
+            while (openConnections.get() < minSize && !shutdown) {
+                PooledConnection fresh = create();
+                fresh.lastReturnedAt = now;
+                idle.offerLast(fresh);
+            }
+
+            if (leakDetectionThresholdMs > 0) {
+                for (PooledConnection pooled : active) {
+                    if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMs) {
+                        pooled.leakReported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("[DB Pool] Possible connection leak: connection held for "
+                                + (now - pooled.borrowedAt) + " ms. Borrowed at:");
+                        if (pooled.borrowSite != null) {
+                            pooled.borrowSite.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("[DB Pool] Maintenance could not open a connection: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("[DB Pool] Maintenance error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the maintenance thread.
+     * Connections still checked out are closed as they are returned.
+     */
+    public void shutdown() {
+        shutdown = true;
+        maintenance.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(active.size(), idle.size(), openConnections.get(), maxSize,
+                borrowCount.get(), totalWaitNanos.get(), maxWaitNanos.get(), timeoutCount.get(),
+                createdCount.get(), evictedCount.get(), leakCount.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    private static int intProp(Properties config, String key, int defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[DB Pool] Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    private static long longProp(Properties config, String key, long defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[DB Pool] Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A physical connection and its statement cache.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        // Only touched by the thread that has the connection checked out.
+        private final LruCache<String, CachedStatement> statements;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = statementCacheSize > 0
+                    ? new LruCache<>(statementCacheSize, (sql, cached) -> cached.evict())
+                    : null;
+        }
+
+        void markBorrowed(boolean captureSite) {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = captureSite ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+        }
+
+        boolean isUsable(int timeoutSec) {
+            try {
+                return !physical.isClosed() && physical.isValid(timeoutSec);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Puts the connection back into a clean state. Returns false if it should be thrown away.
+         */
+        boolean resetForReuse() {
+            try {
+                if (physical.isClosed()) return false;
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            if (statements != null) {
+                statements.drain((sql, cached) -> cached.evict());
+            }
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("[DB Pool] Error closing connection: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Handles prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) through the
+         * statement cache. Returns null for other overloads so they go straight to the driver.
+         *
+         * @param owner the borrower's handle, returned by the statement's getConnection()
+         */
+        PreparedStatement prepareCached(Object[] args, Connection owner) throws SQLException {
+            String key;
+            if (args.length == 1) {
+                key = (String) args[0];
+            } else if (args.length == 2 && args[1] instanceof Integer flag) {
+                key = flag + ":" + args[0];
+            } else {
+                return null;
+            }
+
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse && !cached.physical.isClosed()) {
+                statementHits.incrementAndGet();
+                cached.inUse = true;
+                return new StatementHandle(cached, owner).proxy;
+            }
+
+            statementMisses.incrementAndGet();
+            PreparedStatement physicalStatement = args.length == 1
+                    ? physical.prepareStatement((String) args[0])
+                    : physical.prepareStatement((String) args[0], (Integer) args[1]);
+            if (cached != null && cached.inUse) {
+                // Same SQL already open on this connection (nested use) - don't cache the second copy.
+                return physicalStatement;
+            }
+            CachedStatement fresh = new CachedStatement(physicalStatement);
+            fresh.inUse = true;
+            statements.put(key, fresh);
+            return new StatementHandle(fresh, owner).proxy;
+        }
+    }
+
+    /**
+     * The proxy one borrower gets for a pooled connection. close() closes the statements
+     * opened through it and returns the connection once; after that every call fails,
+     * even when the connection is out again.
+     */
+    private final class ConnectionHandle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Connection proxy;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Cached statement handles and plain driver statements, closed with the connection
+        private final List<Statement> opened = new ArrayList<>();
+
+        ConnectionHandle(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        closeStatements();
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                default:
+                    if (closed.get()) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    Object result = null;
+                    if (pooled.statements != null && method.getName().equals("prepareStatement")) {
+                        result = pooled.prepareCached(args, proxy);
+                    }
+                    if (result == null) {
+                        try {
+                            result = method.invoke(pooled.physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                    if (result instanceof Statement statement) {
+                        opened.add(statement);
+                    }
+                    return result;
+            }
+        }
+
+        // Statements left open by the borrower: cached ones go back to the cache, others are closed
+        private void closeStatements() {
+            for (Statement statement : opened) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    // Closed by the connection reset or discard at the latest
+                }
+            }
+            opened.clear();
+        }
+    }
+
+    /**
+     * A prepared statement kept open across uses. Each use gets its own StatementHandle;
+     * when the handle is closed the statement's parameters, batch and any changed fetch
+     * size, row limit or timeout are reset, but the parsed statement stays open.
+     */
+    private static final class CachedStatement {
+        private final PreparedStatement physical;
+        // The driver's defaults, restored after a user changed them
+        private final int defaultFetchSize;
+        private final int defaultMaxRows;
+        private final int defaultQueryTimeout;
+        private final int defaultFetchDirection;
+        private final int defaultMaxFieldSize;
+        private boolean inUse;
+        private boolean evicted;
+        private boolean settingsChanged;
+        private boolean unrestorable; // a setting we don't reset was changed: close on release
+
+        CachedStatement(PreparedStatement physical) throws SQLException {
+            this.physical = physical;
+            this.defaultFetchSize = physical.getFetchSize();
+            this.defaultMaxRows = physical.getMaxRows();
+            this.defaultQueryTimeout = physical.getQueryTimeout();
+            this.defaultFetchDirection = physical.getFetchDirection();
+            this.defaultMaxFieldSize = physical.getMaxFieldSize();
+        }
+
+        /**
+         * Called when the statement drops out of the cache; closes it now or when its user is done.
+         */
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Called once by the handle that was using it. If it can't be put back into its
+         * original state it is closed, and the next prepareStatement makes a new one.
+         */
+        void release(ResultSet lastResultSet) {
+            inUse = false;
+            if (evicted || unrestorable) {
+                closeQuietly();
+                return;
+            }
+            try {
+                if (lastResultSet != null) {
+                    lastResultSet.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                if (settingsChanged) {
+                    physical.setFetchSize(defaultFetchSize);
+                    physical.setMaxRows(defaultMaxRows);
+                    physical.setQueryTimeout(defaultQueryTimeout);
+                    physical.setFetchDirection(defaultFetchDirection);
+                    physical.setMaxFieldSize(defaultMaxFieldSize);
+                    settingsChanged = false;
+                }
+            } catch (SQLException e) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Statement is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * One use of a cached statement, from prepareStatement to close(). After close()
+     * every call fails, so a kept handle can't reach the statement's next user.
+     */
+    private static final class StatementHandle implements InvocationHandler {
+        // Settings CachedStatement.release puts back, and ones it can't
+        private static final Set<String> RESETTABLE = Set.of(
+                "setFetchSize", "setMaxRows", "setLargeMaxRows", "setQueryTimeout", "setFetchDirection", "setMaxFieldSize");
+        private static final Set<String> UNRESTORABLE = Set.of(
+                "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion");
+
+        private final CachedStatement cached;
+        private final Connection owner;
+        private final PreparedStatement proxy;
+        private boolean closed;
+        private ResultSet lastResultSet;
+
+        StatementHandle(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cached.release(lastResultSet);
+                        lastResultSet = null;
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || cached.physical.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "Cached[" + cached.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement has already been closed.");
+                    }
+                    if (RESETTABLE.contains(name)) {
+                        cached.settingsChanged = true;
+                    } else if (UNRESTORABLE.contains(name)) {
+                        cached.unrestorable = true;
+                    }
+                    try {
+                        Object result = method.invoke(cached.physical, args);
+                        if (name.equals("executeQuery")) {
+                            lastResultSet = (ResultSet) result;
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    /**
+     * A point-in-time snapshot of pool counters, useful for sizing the pool under load.
+     */
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int open;
+        private final int maxSize;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long timeoutCount;
+        private final long createdCount;
+        private final long evictedCount;
+        private final long leakCount;
+        private final long statementHits;
+        private final long statementMisses;
+
+        Stats(int active, int idle, int open, int maxSize, long borrowCount, long totalWaitNanos,
+              long maxWaitNanos, long timeoutCount, long createdCount, long evictedCount, long leakCount,
+              long statementHits, long statementMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.open = open;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.timeoutCount = timeoutCount;
+            this.createdCount = createdCount;
+            this.evictedCount = evictedCount;
+            this.leakCount = leakCount;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getOpen() { return open; }
+        public int getMaxSize() { return maxSize; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getEvictedCount() { return evictedCount; }
+        public long getLeakCount() { return leakCount; }
+        public long getStatementCacheHits() { return statementHits; }
+        public long getStatementCacheMisses() { return statementMisses; }
+
+        public double getTotalWaitMillis() { return totalWaitNanos / 1_000_000.0; }
+        public double getMaxWaitMillis() { return maxWaitNanos / 1_000_000.0; }
+        public double getAverageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : getTotalWaitMillis() / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, open=%d/%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, "
+                            + "timeouts=%d, created=%d, evicted=%d, leaks=%d, stmtCacheHits=%d, stmtCacheMisses=%d",
+                    active, idle, open, maxSize, borrowCount, getAverageWaitMillis(), getMaxWaitMillis(),
+                    timeoutCount, createdCount, evictedCount, leakCount, statementHits, statementMisses);
+        }
+    }
+}
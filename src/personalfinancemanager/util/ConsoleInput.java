@@ -3,6 +3,7 @@ package personalfinancemanager.util;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.Scanner;
+import personalfinancemanager.models.Money;
 
  public class ConsoleInput {
     private static final Scanner scanner = new Scanner(System.in);
@@ -29,6 +30,17 @@ import java.util.Scanner;
         }
     }
 
+    public static Money readMoney(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            try {
+                return Money.parse(scanner.nextLine());
+            } catch (NumberFormatException | ArithmeticException e) {
+                System.out.println("Invalid amount. Try again.");
+            }
+        }
+    }
+
     public static String readString(String prompt) {
         System.out.print(prompt);
         return scanner.nextLine().trim();
@@ -0,0 +1,107 @@
+package personalfinancemanager.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 helpers: quoted fields may contain commas, doubled quotes
+ * and line breaks.
+ */
+public class CsvUtil {
+
+    /**
+     * Reads one CSV record. Like readLine, the record ends at \n, \r\n or \r, which is
+     * not returned; inside a quoted field line breaks are part of the value and are kept
+     * exactly as they are in the input. Returns null at end of input.
+     */
+    public static String readRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        StringBuilder record = new StringBuilder(128);
+        boolean quoted = false;
+        for (; c >= 0; c = reader.read()) {
+            if (c == '"') {
+                quoted = !quoted; // a doubled quote flips it twice
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') reader.reset();
+                }
+                break;
+            }
+            record.append((char) c);
+        }
+        return record.toString();
+    }
+
+    /**
+     * Splits a record into its fields, un-quoting them.
+     */
+    public static List<String> parseRecord(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Appends a field, quoting it only if it contains a comma, quote or line break
+     * (embedded quotes are doubled). A null field is written as empty.
+     */
+    public static StringBuilder appendField(StringBuilder out, String field) {
+        if (field == null) {
+            return out;
+        }
+        if (!needsQuotes(field)) {
+            return out.append(field);
+        }
+        out.append('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        return out.append('"');
+    }
+
+    // Same as appendField, returned as a string
+    public static String escapeField(String field) {
+        if (field == null) return "";
+        return needsQuotes(field) ? appendField(new StringBuilder(), field).toString() : field;
+    }
+
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
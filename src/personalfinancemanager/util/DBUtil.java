@@ -3,12 +3,12 @@ package personalfinancemanager.util;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
 public class DBUtil {
     private static final Properties properties = new Properties();
+    private static final ConnectionPool pool;
 
     static {
         try (FileInputStream fis = new FileInputStream("config.properties")) {
@@ -17,16 +17,66 @@ public class DBUtil {
 
             throw new RuntimeException("FATAL: Could not load config.properties file. Make sure it's in the root directory.", e);
         }
+
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("FATAL: MySQL driver not found. Make sure it's on the classpath.", e);
+        }
+
+        pool = new ConnectionPool(properties);
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "db-pool-shutdown"));
     }
 
+    /**
+     * Borrows a connection from the pool. Closing it (e.g. via try-with-resources)
+     * hands it back to the pool rather than closing the socket.
+     */
     public static Connection getConnection() throws SQLException {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(properties.getProperty("db.url"),
-                                               properties.getProperty("db.user"),
-                                               properties.getProperty("db.password"));
-        } catch (SQLException | ClassNotFoundException e) {
+            return pool.borrow();
+        } catch (SQLException e) {
             throw new SQLException("Failed to establish database connection. Ensure the database is running and the MySQL driver is on the classpath.", e);
         }
     }
+
+    /**
+     * Current pool counters (active, idle, wait times, ...).
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool.getStats();
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * An int setting; a missing or unparsable value gives the default (and a warning
+     * for the latter) rather than an exception.
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[Config] Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * A long setting, read like {@link #getIntProperty}.
+     */
+    public static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[Config] Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
 }
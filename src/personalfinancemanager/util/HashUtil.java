@@ -6,9 +6,13 @@ import java.security.NoSuchAlgorithmException;
 
 public class HashUtil {
     public static String hashPassword(String password) {
+        return sha256Hex(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String sha256Hex(byte[] data) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hashBytes = md.digest(password.getBytes(StandardCharsets.UTF_8));
+            byte[] hashBytes = md.digest(data);
             StringBuilder sb = new StringBuilder();
             for (byte b : hashBytes) {
                 sb.append(String.format("%02x", b));
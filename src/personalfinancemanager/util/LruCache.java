@@ -0,0 +1,163 @@
+package personalfinancemanager.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * A small, thread-safe LRU cache with hit/miss counters and optional
+ * expire-after-write (expired entries are dropped lazily, on access).
+ *
+ * @param <K> key type
+ * @param <V> value type (null values are not stored)
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long expireAfterWriteNanos; // 0 = never
+    private final BiConsumer<K, V> onEvict;
+    private final LinkedHashMap<K, Node<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public LruCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param maxSize maximum number of entries before the least recently used one is dropped
+     * @param onEvict called for entries dropped because the cache is full (may be null)
+     */
+    public LruCache(int maxSize, BiConsumer<K, V> onEvict) {
+        this(maxSize, 0, onEvict);
+    }
+
+    /**
+     * @param maxSize            maximum number of entries before the least recently used one is dropped
+     * @param expireAfterWriteMs entries older than this are treated as missing (0 = never expire)
+     * @param onEvict            called for entries dropped because the cache is full (may be null)
+     */
+    public LruCache(int maxSize, long expireAfterWriteMs, BiConsumer<K, V> onEvict) {
+        this.maxSize = Math.max(1, maxSize);
+        this.expireAfterWriteNanos = Math.max(0, expireAfterWriteMs) * 1_000_000L;
+        this.onEvict = onEvict;
+        // accessOrder = true turns the LinkedHashMap into an LRU list
+        this.map = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Node<V> node = map.get(key);
+        if (node != null && isExpired(node)) {
+            map.remove(key);
+            expirations++;
+            node = null;
+        }
+        if (node != null) {
+            hits++;
+            return node.value;
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (value == null) {
+            map.remove(key);
+            return;
+        }
+        map.put(key, new Node<>(value, System.nanoTime()));
+        while (map.size() > maxSize) {
+            Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator();
+            Map.Entry<K, Node<V>> eldest = it.next();
+            it.remove();
+            evictions++;
+            if (onEvict != null) {
+                onEvict.accept(eldest.getKey(), eldest.getValue().value);
+            }
+        }
+    }
+
+    /**
+     * Stores the value only if the key has no live entry. Returns true if it was stored.
+     */
+    public synchronized boolean putIfAbsent(K key, V value) {
+        Node<V> node = map.get(key);
+        if (node != null && !isExpired(node)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized V remove(K key) {
+        Node<V> node = map.remove(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Removes every entry matching the predicate. Returns how many were removed.
+     */
+    public synchronized int removeIf(BiPredicate<K, V> predicate) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Node<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Node<V>> entry = it.next();
+            if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Runs the action over every entry and empties the cache.
+     */
+    public synchronized void drain(BiConsumer<K, V> action) {
+        for (Map.Entry<K, Node<V>> entry : map.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue().value);
+        }
+        map.clear();
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() { return map.size(); }
+    public int getMaxSize() { return maxSize; }
+    public synchronized long getHitCount() { return hits; }
+    public synchronized long getMissCount() { return misses; }
+    public synchronized long getEvictionCount() { return evictions; }
+    public synchronized long getExpirationCount() { return expirations; }
+
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("size=%d/%d, hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, expirations=%d",
+                map.size(), maxSize, hits, misses, getHitRatio(), evictions, expirations);
+    }
+
+    private boolean isExpired(Node<V> node) {
+        return expireAfterWriteNanos > 0 && System.nanoTime() - node.writtenAt > expireAfterWriteNanos;
+    }
+
+    private static final class Node<V> {
+        final V value;
+        final long writtenAt;
+
+        Node(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
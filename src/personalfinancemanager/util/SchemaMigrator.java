@@ -0,0 +1,310 @@
+package personalfinancemanager.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned SQL scripts in resources/db/migrations at startup.
+ *
+ * Scripts are named V&lt;version&gt;__&lt;description&gt;.sql and run in version order.
+ * Each applied script is recorded in the schema_version table together with a
+ * SHA-256 checksum, so every script runs exactly once per database and edits
+ * to an already-applied script are reported instead of silently ignored.
+ *
+ * Settings (config.properties):
+ *   db.migrations.enabled  - run at startup (default true)
+ *   db.migrations.dir      - script folder (default resources/db/migrations)
+ *   db.migrations.dryRun   - only print the plan and index build estimates
+ */
+public class SchemaMigrator {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final Pattern INDEX_TARGET = Pattern.compile(
+            "^\\s*(?:CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+\\S+\\s+ON|ALTER\\s+TABLE)\\s+`?(\\w+)`?",
+            Pattern.CASE_INSENSITIVE);
+    private static final String LOCK_NAME = "pfm_schema_migration";
+
+    // MySQL errors meaning "this change is already in place"
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    // Rough InnoDB secondary index build rate, only used for dry-run estimates
+    private static final long ESTIMATED_ROWS_PER_SECOND = 200_000L;
+
+    private final File migrationsDir;
+    private final boolean dryRun;
+
+    public SchemaMigrator(File migrationsDir, boolean dryRun) {
+        this.migrationsDir = migrationsDir;
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Startup entry point used by FinanceApp and FinanceGuiApp.
+     * Failures are logged and the app keeps starting against the current schema.
+     */
+    public static void runAtStartup() {
+        if (!Boolean.parseBoolean(DBUtil.getProperty("db.migrations.enabled", "true"))) {
+            return;
+        }
+        File dir = new File(DBUtil.getProperty("db.migrations.dir", "resources/db/migrations"));
+        boolean dryRun = Boolean.parseBoolean(DBUtil.getProperty("db.migrations.dryRun", "false"));
+        try {
+            new SchemaMigrator(dir, dryRun).migrate();
+        } catch (SQLException | IOException | IllegalStateException e) {
+            System.err.println("[X] Schema migration failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Applies (or, in dry-run mode, describes) every pending migration.
+     *
+     * @return the number of migrations applied (or that would be applied in dry-run mode)
+     */
+    public int migrate() throws SQLException, IOException {
+        Map<Integer, Migration> available = loadMigrations();
+        if (available.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection con = DBUtil.getConnection()) {
+            if (!acquireLock(con)) {
+                throw new IllegalStateException("Another instance is migrating the schema; try again shortly.");
+            }
+            try {
+                ensureVersionTable(con);
+                Map<Integer, String> applied = loadAppliedChecksums(con);
+
+                List<Migration> pending = new ArrayList<>();
+                for (Migration m : available.values()) {
+                    String checksum = applied.get(m.version);
+                    if (checksum == null) {
+                        pending.add(m);
+                    } else if (!checksum.equals(m.checksum)) {
+                        throw new IllegalStateException("Migration " + m.fileName
+                                + " was changed after it was applied (checksum mismatch). Add a new migration instead.");
+                    }
+                }
+
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                if (dryRun) {
+                    printPlan(con, pending);
+                    return pending.size();
+                }
+                for (Migration m : pending) {
+                    apply(con, m);
+                }
+                return pending.size();
+            } finally {
+                releaseLock(con);
+            }
+        }
+    }
+
+    private Map<Integer, Migration> loadMigrations() throws IOException {
+        Map<Integer, Migration> migrations = new TreeMap<>();
+        File[] files = migrationsDir.listFiles();
+        if (files == null) {
+            System.err.println("[!] Migrations folder not found: " + migrationsDir.getPath());
+            return migrations;
+        }
+        for (File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if (!matcher.matches()) continue;
+
+            int version = Integer.parseInt(matcher.group(1));
+            String description = matcher.group(2).replace('_', ' ');
+            // Normalise line endings so a Windows checkout produces the same checksum
+            String script = Files.readString(file.toPath(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            Migration previous = migrations.put(version,
+                    new Migration(version, description, file.getName(), script,
+                            HashUtil.sha256Hex(script.getBytes(StandardCharsets.UTF_8))));
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate migration version " + version + ": "
+                        + previous.fileName + " and " + file.getName());
+            }
+        }
+        return migrations;
+    }
+
+    private void ensureVersionTable(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("""
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(200) NOT NULL,
+                    script VARCHAR(255) NOT NULL,
+                    checksum CHAR(64) NOT NULL,
+                    execution_ms BIGINT NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+        }
+    }
+
+    private Map<Integer, String> loadAppliedChecksums(Connection con) throws SQLException {
+        Map<Integer, String> applied = new TreeMap<>();
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void apply(Connection con, Migration m) throws SQLException {
+        System.out.println("[DB] Applying migration " + m.fileName + " ...");
+        long start = System.currentTimeMillis();
+        try (Statement st = con.createStatement()) {
+            for (String sql : splitStatements(m.script)) {
+                try {
+                    st.execute(sql);
+                } catch (SQLException e) {
+                    if (!isAlreadyApplied(e)) {
+                        throw new SQLException("Migration " + m.fileName + " failed on: " + sql, e);
+                    }
+                }
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        String sql = "INSERT INTO schema_version (version, description, script, checksum, execution_ms) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setInt(1, m.version);
+            pst.setString(2, m.description);
+            pst.setString(3, m.fileName);
+            pst.setString(4, m.checksum);
+            pst.setLong(5, elapsed);
+            pst.executeUpdate();
+        }
+        System.out.println("[DB] Applied " + m.fileName + " in " + elapsed + " ms.");
+    }
+
+    private boolean isAlreadyApplied(SQLException e) {
+        int code = e.getErrorCode();
+        return code == ER_TABLE_EXISTS || code == ER_DUP_FIELDNAME || code == ER_DUP_KEYNAME;
+    }
+
+    private void printPlan(Connection con, List<Migration> pending) throws SQLException {
+        System.out.println("[DB] Dry run: " + pending.size() + " pending migration(s), nothing will be changed.");
+        for (Migration m : pending) {
+            System.out.println("\n  V" + m.version + " - " + m.description + " (" + m.fileName + ")");
+            for (String sql : splitStatements(m.script)) {
+                System.out.println("    " + sql.replaceAll("\\s+", " "));
+                Matcher matcher = INDEX_TARGET.matcher(sql);
+                if (matcher.find()) {
+                    System.out.println("      -> " + estimateTableCost(con, matcher.group(1)));
+                }
+            }
+        }
+        System.out.println();
+    }
+
+    /**
+     * Uses information_schema statistics (approximate for InnoDB) to estimate how much
+     * data an index build or table rebuild has to read.
+     */
+    private String estimateTableCost(Connection con, String table) throws SQLException {
+        String sql = "SELECT TABLE_ROWS, DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES " +
+                     "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        try (PreparedStatement pst = con.prepareStatement(sql)) {
+            pst.setString(1, table);
+            ResultSet rs = pst.executeQuery();
+            if (!rs.next()) {
+                return "table '" + table + "' does not exist yet (no build cost)";
+            }
+            long rows = rs.getLong("TABLE_ROWS");
+            double dataMb = rs.getLong("DATA_LENGTH") / (1024.0 * 1024.0);
+            double indexMb = rs.getLong("INDEX_LENGTH") / (1024.0 * 1024.0);
+            double seconds = (double) rows / ESTIMATED_ROWS_PER_SECOND;
+            return String.format("'%s': ~%,d rows, %.1f MB data, %.1f MB existing indexes, est. build ~%.1f s",
+                    table, rows, dataMb, indexMb, seconds);
+        }
+    }
+
+    private boolean acquireLock(Connection con) throws SQLException {
+        try (PreparedStatement pst = con.prepareStatement("SELECT GET_LOCK(?, 30)")) {
+            pst.setString(1, LOCK_NAME);
+            ResultSet rs = pst.executeQuery();
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+
+    private void releaseLock(Connection con) {
+        try (PreparedStatement pst = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pst.setString(1, LOCK_NAME);
+            pst.executeQuery();
+        } catch (SQLException e) {
+            System.err.println("[!] Could not release migration lock: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Splits a script on ';' and drops "--" comments, ignoring both inside quoted strings.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (quote != 0) {
+                current.append(c);
+                if (c == quote) quote = 0;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+                current.append(c);
+            } else if (c == '-' && i + 1 < script.length() && script.charAt(i + 1) == '-') {
+                while (i < script.length() && script.charAt(i) != '\n') i++;
+                current.append('\n');
+            } else if (c == ';') {
+                addIfNotBlank(statements, current);
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        addIfNotBlank(statements, current);
+        return statements;
+    }
+
+    private static void addIfNotBlank(List<String> statements, StringBuilder sql) {
+        String trimmed = sql.toString().trim();
+        if (!trimmed.isEmpty()) {
+            statements.add(trimmed);
+        }
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final String fileName;
+        final String script;
+        final String checksum;
+
+        Migration(int version, String description, String fileName, String script, String checksum) {
+            this.version = version;
+            this.description = description;
+            this.fileName = fileName;
+            this.script = script;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import personalfinancemanager.auth.AuthManager;
 import personalfinancemanager.auth.Session;
 import personalfinancemanager.models.User;
 import personalfinancemanager.service.FinanceService;
+import personalfinancemanager.service.UnitOfWork;
 import personalfinancemanager.util.ConsoleInput;
 
 public class ConsoleUI {
@@ -31,6 +32,7 @@ public class ConsoleUI {
                     User user = authManager.login();
                     if (user != null) {
                         Session.setUser(user);
+                        financeService.warmUpAsync(user.getUserId());
                         dashboard();
                     }
                 }
@@ -70,26 +72,32 @@ public class ConsoleUI {
 
             int choice = ConsoleInput.readInt("Select an option: ");
 
-            switch (choice) {
-                case 1 -> reportView.promptNewTransaction(userId);
-                case 2 -> reportView.promptEditTransaction(userId);
-                case 3 -> reportView.promptDeleteTransaction(userId);
-                case 4 -> reportView.printAllTransactions(userId);
-                case 5 -> reportView.printMonthlyBreakdown(userId);
-                case 6 -> reportView.printTopSpendingCategories(userId);
-                case 7 -> reportView.printSavings(userId);
-                case 8 -> reportView.manageBudget(userId);
-                case 9 -> reportView.checkBudgetStatus(userId);
-                case 10 -> reportView.manageAccounts(userId);
-                case 11 -> reportView.manageCategories(userId);
-                case 12 -> reportView.exportAllTx(userId);
-                case 13 -> reportView.exportSummary(userId);
-                case 14 -> {
-                    Session.logout();
-                    System.out.println("[Logout] You have been logged out.");
-                }
-                default -> System.out.println("[!] Invalid option.");
+            // One menu action = one unit of work: repeated reads within it hit the database once
+            UnitOfWork.run(() -> dispatch(choice, userId));
+        }
+    }
+
+    private void dispatch(int choice, int userId) {
+        switch (choice) {
+            case 1 -> reportView.promptNewTransaction(userId);
+            case 2 -> reportView.promptEditTransaction(userId);
+            case 3 -> reportView.promptDeleteTransaction(userId);
+            case 4 -> reportView.printAllTransactions(userId);
+            case 5 -> reportView.printMonthlyBreakdown(userId);
+            case 6 -> reportView.printTopSpendingCategories(userId);
+            case 7 -> reportView.printSavings(userId);
+            case 8 -> reportView.manageBudget(userId);
+            case 9 -> reportView.checkBudgetStatus(userId);
+            case 10 -> reportView.manageAccounts(userId);
+            case 11 -> reportView.manageCategories(userId);
+            case 12 -> reportView.exportAllTx(userId);
+            case 13 -> reportView.exportSummary(userId);
+            case 14 -> {
+                financeService.saveSnapshotAsync(userId);
+                Session.logout();
+                System.out.println("[Logout] You have been logged out.");
             }
+            default -> System.out.println("[!] Invalid option.");
         }
     }
 }
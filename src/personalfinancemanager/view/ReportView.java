@@ -3,6 +3,9 @@ package personalfinancemanager.view;
 import personalfinancemanager.models.Transaction;
 import personalfinancemanager.models.Income;
 import personalfinancemanager.models.Expense;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionPage;
+import personalfinancemanager.models.TransactionView;
 import personalfinancemanager.service.FinanceService;
 import personalfinancemanager.service.ExportService;
 import personalfinancemanager.util.ConsoleInput;
@@ -15,6 +18,8 @@ import java.util.List;
 import java.util.Map;
 
 public class ReportView {
+    private static final int PAGE_SIZE = 20;
+
     private final FinanceService financeService;
 
     public ReportView(FinanceService financeService) {
@@ -23,25 +28,34 @@ public class ReportView {
     }
 
     public void printAllTransactions(int userId) {
-        List<Transaction> txList = financeService.getAllTransactions(userId);
-        if (txList.isEmpty()) {
-            System.out.println("No transactions found.");
-            return;
-        }
+        String cursor = null;
+        boolean first = true;
+        do {
+            TransactionPage page = financeService.getTransactionPage(userId, cursor, PAGE_SIZE);
+            if (first && page.getTransactions().isEmpty()) {
+                System.out.println("No transactions found.");
+                return;
+            }
+            first = false;
+
+            List<String[]> rows = new ArrayList<>();
+            rows.add(new String[] { "ID", "Type", "Amount", "Category", "Account", "Timestamp", "Note" });
+            for (TransactionView tx : page.getTransactions()) {
+                rows.add(new String[] {
+                    String.valueOf(tx.getTransactionId()),
+                    tx.getType(),
+                    String.format("Rs.%.2f", tx.getAmount().toBigDecimal()),
+                    tx.getCategoryName(),
+                    tx.getAccountName(),
+                    tx.getTimestamp().toString(),
+                    tx.getNote() != null ? tx.getNote() : "-"
+                });
+            }
+            TablePrinter.printGrid(rows, new int[] { 4, 10, 10, 15, 15, 20, 20 });
 
-        List<String[]> rows = new ArrayList<>();
-        rows.add(new String[] { "ID", "Type", "Amount", "CategoryID", "Timestamp", "Note" });
-        for (Transaction tx : txList) {
-            rows.add(new String[] {
-                String.valueOf(tx.getTransactionId()),
-                tx.getType(),
-                String.format("Rs.%.2f", tx.getAmount()),
-                String.valueOf(tx.getCategoryId()),
-                tx.getTimestamp().toString(),
-                tx.getNote() != null ? tx.getNote() : "-"
-            });
-        }
-        TablePrinter.printGrid(rows, new int[] { 4, 10, 10, 10, 20, 20 });
+            cursor = page.getNextCursor();
+        } while (cursor != null
+                && !ConsoleInput.readString("Press Enter for the next page, or Q to stop: ").equalsIgnoreCase("Q"));
     }
 
 
@@ -49,7 +63,7 @@ public class ReportView {
         int year = ConsoleInput.readInt("Enter year (e.g. 2025): ");
         int month = ConsoleInput.readInt("Enter month (1-12): ");
 
-        Map<String, Double> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
+        Map<String, Money> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
         if (breakdown.isEmpty()) {
             System.out.println("No expenses found for the selected month.");
             return;
@@ -60,7 +74,7 @@ public class ReportView {
         for (var entry : breakdown.entrySet()) {
             rows.add(new String[] {
                 entry.getKey(),
-                String.format("%.2f", entry.getValue())
+                String.format("%.2f", entry.getValue().toBigDecimal())
             });
         }
         TablePrinter.printGrid(rows, new int[] { 20, 12 });
@@ -80,14 +94,18 @@ public class ReportView {
         System.out.println("\n[OK] Top 3 Spending Categories:");
         int rank = 1;
         for (var entry : top) {
-            System.out.printf("%d. %-20s Rs.%.2f\n", rank++, entry.getKey(), entry.getValue());
+            System.out.printf("%d. %-20s Rs.%.2f\n", rank++, entry.getKey(), entry.getValue().toBigDecimal());
         }
     }
 
     public void printSavings(int userId) {
-        double savings = financeService.getNetSavings(userId);
-        String symbol = savings >= 0 ? "[OK]" : "[X]️";
-        System.out.printf("\n%s Net Savings:  Rs.%.2f\n", symbol, savings);
+        Money savings = financeService.getNetSavings(userId);
+        if (savings == null) {
+            System.out.println("[!] Could not load net savings. Try again.");
+            return;
+        }
+        String symbol = savings.signum() >= 0 ? "[OK]" : "[X]️";
+        System.out.printf("\n%s Net Savings:  Rs.%.2f\n", symbol, savings.toBigDecimal());
     }
     
     public void printBudgetSummary(int userId) {
@@ -95,15 +113,14 @@ public class ReportView {
         int year = now.getYear();
         int month = now.getMonthValue();
 
-        Double budget = financeService.getMonthlyBudget(userId, year, month);
-        double spent = financeService.getMonthlyCategoryBreakdown(userId, year, month)
-                        .values().stream().mapToDouble(Double::doubleValue).sum();
+        Money budget = financeService.getMonthlyBudget(userId, year, month);
+        Money spent = financeService.getMonthlyExpenseTotal(userId, year, month);
 
         if (budget == null) {
             System.out.println("[!] You haven’t set a budget for this month yet.");
         } else {
-            String emoji = spent > budget ? "[OK]" : "[X]️";
-            System.out.printf("%s Spent Rs.%.2f of Rs.%.2f for %s %d\n", emoji, spent, budget, now.getMonth(), year);
+            String emoji = spent.compareTo(budget) > 0 ? "[OK]" : "[X]️";
+            System.out.printf("%s Spent Rs.%.2f of Rs.%.2f for %s %d\n", emoji, spent.toBigDecimal(), budget.toBigDecimal(), now.getMonth(), year);
         }
     }
 
@@ -120,7 +137,7 @@ public class ReportView {
         System.out.println("[OK] Your Accounts:");
         System.out.printf("%-5s %-20s %-10s\n", "ID", "Name", "Balance");
         for (var acc : accounts) {
-            System.out.printf("%-5d %-20s Rs.%.2f\n", acc.getAccountId(), acc.getName(), acc.getBalance());
+            System.out.printf("%-5d %-20s Rs.%.2f\n", acc.getAccountId(), acc.getName(), acc.getBalance().toBigDecimal());
         }
 
         // Show available categories
@@ -138,7 +155,7 @@ public class ReportView {
         // Proceed with transaction input
         int accountId = ConsoleInput.readInt("Account ID: ");
         int categoryId = ConsoleInput.readInt("Category ID: ");
-        double amount = ConsoleInput.readDouble("Amount (Rs.): ");
+        Money amount = ConsoleInput.readMoney("Amount (Rs.): ");
         String type;
         do {
             type = ConsoleInput.readString("Type (INCOME or EXPENSE): ").toUpperCase();
@@ -169,7 +186,7 @@ public class ReportView {
     
     public void promptEditTransaction(int userId) {
         int txId = ConsoleInput.readInt("Enter Transaction ID to edit: ");
-        double newAmount = ConsoleInput.readDouble("New amount: ");
+        Money newAmount = ConsoleInput.readMoney("New amount: ");
         String newNote = ConsoleInput.readString("New note: ");
 
         boolean success = financeService.updateTransactionAmountAndNote(txId, newAmount, newNote);
@@ -207,7 +224,7 @@ public class ReportView {
 
     private void createAccount(int userId) {
         String name = ConsoleInput.readString("Account name: ");
-        double balance = ConsoleInput.readDouble("Opening balance: ");
+        Money balance = ConsoleInput.readMoney("Opening balance: ");
         boolean success = financeService.createAccount(userId, name, balance);
         System.out.println(success ? "[OK] Account created!" : "[ERROR] Failed to create account.");
     }
@@ -225,7 +242,7 @@ public class ReportView {
             rows.add(new String[] {
                 String.valueOf(acc.getAccountId()),
                 acc.getName(),
-                String.format("%.2f", acc.getBalance())
+                String.format("%.2f", acc.getBalance().toBigDecimal())
             });
         }
         TablePrinter.printGrid(rows, new int[] { 5, 20, 12 });
@@ -297,7 +314,7 @@ public class ReportView {
     public void manageBudget(int userId) {
         int year = ConsoleInput.readInt("Set budget for year: ");
         int month = ConsoleInput.readInt("Set budget for month (1-12): ");
-        double amount = ConsoleInput.readDouble("Enter monthly budget (₹): ");
+        Money amount = ConsoleInput.readMoney("Enter monthly budget (₹): ");
 
         boolean success = financeService.setMonthlyBudget(userId, year, month, amount);
         System.out.println(success ? "[OK] Budget set!" : "[!] Failed to update.");
@@ -307,17 +324,16 @@ public class ReportView {
         int year = ConsoleInput.readInt("Check budget for year: ");
         int month = ConsoleInput.readInt("Check for month (1-12): ");
 
-        Double budget = financeService.getMonthlyBudget(userId, year, month);
+        Money budget = financeService.getMonthlyBudget(userId, year, month);
         if (budget == null) {
             System.out.println("[!] No budget set for this month.");
             return;
         }
 
-        double spent = financeService.getMonthlyCategoryBreakdown(userId, year, month)
-                        .values().stream().mapToDouble(Double::doubleValue).sum();
+        Money spent = financeService.getMonthlyExpenseTotal(userId, year, month);
 
-        String status = spent > budget ? "[X]️ Over budget!" : "[OK] Within budget.";
-        System.out.printf("\n Budget: Rs.%.2f | Spent: Rs.%.2f -> %s\n", budget, spent, status);
+        String status = spent.compareTo(budget) > 0 ? "[X]️ Over budget!" : "[OK] Within budget.";
+        System.out.printf("\n Budget: Rs.%.2f | Spent: Rs.%.2f -> %s\n", budget.toBigDecimal(), spent.toBigDecimal(), status);
     }
 
         public ExportService exportService; 
@@ -6,6 +6,7 @@ import java.time.LocalDateTime; // Use this instead of Timestamp
 import java.util.List;
 import javax.swing.*;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.models.Account;
 import personalfinancemanager.models.Category;
 import personalfinancemanager.models.Transaction;
@@ -21,6 +22,8 @@ public class AddTransactionPanel extends JPanel {
     private final JComboBox<String> typeComboBox;
     private final JTextField amountField;
     private final JTextField noteField;
+    private final JButton saveButton;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public AddTransactionPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -86,113 +89,126 @@ public class AddTransactionPanel extends JPanel {
         gbc.gridwidth = 2; // Span both columns
         gbc.fill = GridBagConstraints.NONE;
         gbc.anchor = GridBagConstraints.CENTER;
-        JButton saveButton = new JButton("Save Transaction");
+        saveButton = new JButton("Save Transaction");
         add(saveButton, gbc);
 
         // --- Load data into combo boxes ---
-        loadAccounts();
-        loadCategories();
+        loadChoices();
 
         // --- Action Listeners ---
         saveButton.addActionListener(e -> saveTransaction());
     }
 
-    private void loadAccounts() {
-        try {
-            int userId = Session.getUser().getUserId();
-            // FIX #1: Renamed method to getAccountsByUser
-            List<Account> accounts = financeService.getAccountsByUser(userId);
-            accountComboBox.removeAllItems();
-            for (Account acc : accounts) {
-                accountComboBox.addItem(acc);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading accounts: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    /**
+     * Fetches the user's accounts and categories in one background task and fills both combo boxes.
+     */
+    private void loadChoices() {
+        int userId = Session.getUser().getUserId();
+        loader.load(() -> new Choices(financeService.getAccountsByUser(userId), financeService.getCategoriesByUser(userId)),
+                this::showChoices,
+                e -> JOptionPane.showMessageDialog(this, "Error loading accounts and categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
-    private void loadCategories() {
-        try {
-            int userId = Session.getUser().getUserId();
-            // FIX #2: Renamed method to getCategoriesByUser
-            List<Category> categories = financeService.getCategoriesByUser(userId);
-            categoryComboBox.removeAllItems();
-            for (Category cat : categories) {
-                categoryComboBox.addItem(cat);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    private void showChoices(Choices choices) {
+        accountComboBox.removeAllItems();
+        for (Account acc : choices.accounts) {
+            accountComboBox.addItem(acc);
+        }
+        categoryComboBox.removeAllItems();
+        for (Category cat : choices.categories) {
+            categoryComboBox.addItem(cat);
         }
     }
 
     private void saveTransaction() {
+        // 1. Get selected items
+        Account selectedAccount = (Account) accountComboBox.getSelectedItem();
+        Category selectedCategory = (Category) categoryComboBox.getSelectedItem();
+        String type = (String) typeComboBox.getSelectedItem();
+
+        if (selectedAccount == null || selectedCategory == null) {
+            JOptionPane.showMessageDialog(this, "Please pick an account and a category (they may still be loading).", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        // 2. Validate Amount
+        BigDecimal amountDecimal; // Use BigDecimal for safe validation
         try {
-            // 1. Get selected items
-            Account selectedAccount = (Account) accountComboBox.getSelectedItem();
-            Category selectedCategory = (Category) categoryComboBox.getSelectedItem();
-            String type = (String) typeComboBox.getSelectedItem();
-
-            // 2. Validate Amount
-            BigDecimal amountDecimal; // Use BigDecimal for safe validation
-            try {
-                amountDecimal = new BigDecimal(amountField.getText());
-                if (amountDecimal.compareTo(BigDecimal.ZERO) <= 0) {
-                    throw new NumberFormatException("Amount must be positive.");
-                }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
+            amountDecimal = new BigDecimal(amountField.getText());
+            if (amountDecimal.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new NumberFormatException("Amount must be positive.");
             }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            // Convert to double for your model
-            double amount = amountDecimal.doubleValue();
-
-            // 3. Get other fields
-            String note = noteField.getText();
-            LocalDateTime timestamp = LocalDateTime.now(); // Use LocalDateTime
-            LocalDateTime createdAt = LocalDateTime.now(); // Use LocalDateTime
-
-            // 4. Create Transaction object (THIS IS THE MAIN FIX)
-            Transaction tx;
-            if ("INCOME".equals(type)) {
-                tx = new Income(
-                        0, // 0 for new transaction, DB will auto-increment
-                        selectedAccount.getAccountId(),
-                        selectedCategory.getCategoryId(),
-                        amount,
-                        timestamp,
-                        note,
-                        createdAt
-                );
-            } else { // Default to Expense
-                tx = new Expense(
-                        0,
-                        selectedAccount.getAccountId(),
-                        selectedCategory.getCategoryId(),
-                        amount,
-                        timestamp,
-                        note,
-                        createdAt
-                );
-            }
+        // Rounded to paise, as stored in the DECIMAL(.., 2) column
+        Money amount = Money.of(amountDecimal);
+
+        // 3. Get other fields
+        String note = noteField.getText();
+        LocalDateTime timestamp = LocalDateTime.now(); // Use LocalDateTime
+        LocalDateTime createdAt = LocalDateTime.now(); // Use LocalDateTime
+
+        // 4. Create Transaction object (THIS IS THE MAIN FIX)
+        Transaction tx;
+        if ("INCOME".equals(type)) {
+            tx = new Income(
+                    0, // 0 for new transaction, DB will auto-increment
+                    selectedAccount.getAccountId(),
+                    selectedCategory.getCategoryId(),
+                    amount,
+                    timestamp,
+                    note,
+                    createdAt
+            );
+        } else { // Default to Expense
+            tx = new Expense(
+                    0,
+                    selectedAccount.getAccountId(),
+                    selectedCategory.getCategoryId(),
+                    amount,
+                    timestamp,
+                    note,
+                    createdAt
+            );
+        }
 
-            // 5. Save via service
-            // FIX #3: Removed the second argument (userId)
-            if (financeService.addTransaction(tx)) {
-                JOptionPane.showMessageDialog(this, "Transaction saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                // Clear the form
-                amountField.setText("");
-                noteField.setText("");
-                // Reload accounts to show updated balance
-                loadAccounts();
-                loadCategories();
-            } else {
-                throw new Exception("Save operation returned false.");
-            }
+        // 5. Save via service, in the background
+        // FIX #3: Removed the second argument (userId)
+        saveButton.setEnabled(false);
+        loader.submit(() -> {
+                    if (!financeService.addTransaction(tx)) {
+                        throw new Exception("Save operation returned false.");
+                    }
+                    return true;
+                },
+                saved -> {
+                    saveButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Transaction saved successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    // Clear the form
+                    amountField.setText("");
+                    noteField.setText("");
+                    // Reload accounts to show updated balance
+                    loadChoices();
+                },
+                e -> {
+                    saveButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Error saving transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
+
+    /**
+     * Accounts and categories fetched together for the combo boxes.
+     */
+    private static final class Choices {
+        final List<Account> accounts;
+        final List<Category> categories;
 
-        } catch (Exception e) {
-            e.printStackTrace(); // Good for debugging
-            JOptionPane.showMessageDialog(this, "Error saving transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        Choices(List<Account> accounts, List<Category> categories) {
+            this.accounts = accounts;
+            this.categories = categories;
         }
     }
 }
@@ -7,6 +7,7 @@ import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.models.Account;
 import personalfinancemanager.models.Category;
 import personalfinancemanager.models.Transaction;
@@ -216,7 +217,7 @@ public class AddTransactionPanel_Modern extends JPanel {
                 return;
             }
 
-            double amount = amountDecimal.doubleValue();
+            Money amount = Money.of(amountDecimal);
 
             // 3. Get other fields
             String note = noteField.getText().trim();
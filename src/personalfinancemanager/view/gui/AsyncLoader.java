@@ -0,0 +1,117 @@
+package personalfinancemanager.view.gui;
+
+import java.awt.Cursor;
+import java.awt.event.HierarchyEvent;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import personalfinancemanager.service.UnitOfWork;
+
+/**
+ * Runs a panel's database calls off the Event Dispatch Thread.
+ *
+ * Each panel owns one loader. Starting a new load cancels the one in flight,
+ * and results that arrive after they were superseded are dropped, so a slow
+ * query can never overwrite a newer answer. A task that is already running is
+ * never interrupted: interrupting a thread blocked in JDBC socket I/O closes the
+ * socket, and the dead connection would go back to the pool. It runs to the end
+ * and only its callback is dropped. When the panel is taken off screen
+ * (e.g. the user picks another dashboard button) the in-flight load is
+ * cancelled as well. While work is running the panel shows a wait cursor.
+ * Each task runs in its own UnitOfWork, so it never repeats a query.
+ *
+ * All methods must be called on the Event Dispatch Thread; the callbacks are
+ * also delivered there.
+ */
+public class AsyncLoader {
+
+    // One virtual thread per task: blocking JDBC calls are cheap to park
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final JComponent owner;
+    private Future<?> inFlight;
+    // Bumped on every start/cancel; a callback only runs if its number is still current
+    private int generation;
+
+    public AsyncLoader(JComponent owner) {
+        this.owner = owner;
+        // Cancel as soon as the panel is removed from the dashboard
+        owner.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0 && !owner.isDisplayable()) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Starts a read. Any previous load or submit is cancelled.
+     *
+     * @param task      runs on a background thread
+     * @param onSuccess receives the result on the EDT
+     * @param onFailure receives any exception thrown by the task on the EDT
+     */
+    public <T> void load(Callable<T> task, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        start(task, onSuccess, onFailure);
+    }
+
+    /**
+     * Starts a write. Like {@link #load}, once the task is running it is not cut off;
+     * if it is superseded or the panel is closed, only its callback is dropped.
+     */
+    public <T> void submit(Callable<T> task, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        start(task, onSuccess, onFailure);
+    }
+
+    /**
+     * Cancels the in-flight task, if any: it won't start if it hasn't yet, and its
+     * callbacks will not run.
+     */
+    public void cancel() {
+        generation++;
+        if (inFlight != null) {
+            inFlight.cancel(false);
+            inFlight = null;
+        }
+        owner.setCursor(null);
+    }
+
+    public boolean isLoading() {
+        return inFlight != null;
+    }
+
+    private <T> void start(Callable<T> task, Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        cancel();
+        int expectedGeneration = generation;
+        owner.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        inFlight = EXECUTOR.submit(() -> {
+            T result = null;
+            Exception error = null;
+            try {
+                result = UnitOfWork.call(task);
+            } catch (Exception e) {
+                error = e;
+            }
+            deliver(expectedGeneration, result, error, onSuccess, onFailure);
+        });
+    }
+
+    private <T> void deliver(int expectedGeneration, T result, Exception error,
+                             Consumer<? super T> onSuccess, Consumer<? super Exception> onFailure) {
+        SwingUtilities.invokeLater(() -> {
+            if (expectedGeneration != generation) return; // superseded or cancelled
+            inFlight = null;
+            owner.setCursor(null);
+            if (error == null) {
+                onSuccess.accept(result);
+            } else {
+                System.err.println("Error loading data: " + error.getMessage());
+                onFailure.accept(error);
+            }
+        });
+    }
+}
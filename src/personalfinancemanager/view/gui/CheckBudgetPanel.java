@@ -3,8 +3,8 @@ package personalfinancemanager.view.gui;
 import java.awt.*;
 import javax.swing.*;
 import java.time.LocalDate;
-import java.util.Map;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.service.FinanceService;
 
 public class CheckBudgetPanel extends JPanel {
@@ -13,6 +13,7 @@ public class CheckBudgetPanel extends JPanel {
     private final JTextField yearField;
     private final JComboBox<String> monthComboBox;
     private final JLabel resultLabel; // Label to show the budget status
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public CheckBudgetPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -79,64 +80,82 @@ public class CheckBudgetPanel extends JPanel {
     }
 
     private void checkBudget() {
+        // 1. Get and validate Year
+        int year;
         try {
-            // 1. Get and validate Year
-            int year;
-            try {
-                year = Integer.parseInt(yearField.getText());
-                if (year < 2000 || year > 2100) {
-                    throw new NumberFormatException();
-                }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
+            year = Integer.parseInt(yearField.getText());
+            if (year < 2000 || year > 2100) {
+                throw new NumberFormatException();
             }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            // 2. Get Month
-            int month = monthComboBox.getSelectedIndex() + 1;
-            String monthName = (String) monthComboBox.getSelectedItem();
-            monthName = monthName.substring(0, monthName.indexOf(" (")); // Get "January"
+        // 2. Get Month
+        int month = monthComboBox.getSelectedIndex() + 1;
+        String selectedMonth = (String) monthComboBox.getSelectedItem();
+        String monthName = selectedMonth.substring(0, selectedMonth.indexOf(" (")); // Get "January"
+
+        // 3. Call the service in the background; spending is only fetched when a budget exists
+        int userId = Session.getUser().getUserId();
+        resultLabel.setText("Loading...");
+        resultLabel.setForeground(Color.GRAY);
+        loader.load(() -> {
+                    Money budget = financeService.getMonthlyBudget(userId, year, month);
+                    Money spent = budget == null ? Money.ZERO : financeService.getMonthlyExpenseTotal(userId, year, month);
+                    return new BudgetStatus(budget, spent);
+                },
+                status -> showStatus(monthName, year, status),
+                e -> {
+                    resultLabel.setText(" ");
+                    JOptionPane.showMessageDialog(this, "Error checking budget: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
-            // 3. Call the service
-            int userId = Session.getUser().getUserId();
-            Double budget = financeService.getMonthlyBudget(userId, year, month);
+    private void showStatus(String monthName, int year, BudgetStatus budgetStatus) {
+        Money budget = budgetStatus.budget;
+        Money spent = budgetStatus.spent;
+        if (budget == null) {
+            resultLabel.setText("No budget set for " + monthName + " " + year + ".");
+            resultLabel.setForeground(Color.BLUE);
+            return;
+        }
 
-            if (budget == null) {
-                resultLabel.setText("No budget set for " + monthName + " " + year + ".");
-                resultLabel.setForeground(Color.BLUE);
-                return;
-            }
+        // 4. Display the result
+        String status;
+        Color statusColor;
+        Money remaining = budget.minus(spent);
+
+        if (remaining.isNegative()) {
+            status = String.format("Over Budget by ₹%.2f", remaining.negate().toBigDecimal());
+            statusColor = Color.RED;
+        } else {
+            status = String.format("Under Budget by ₹%.2f", remaining.toBigDecimal());
+            statusColor = new Color(0, 153, 51); // Dark Green
+        }
 
-            // 4. Get total spending
-            Map<String, Double> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
-            double spent = breakdown.values().stream().mapToDouble(Double::doubleValue).sum();
-
-            // 5. Display the result
-            String status;
-            Color statusColor;
-            double remaining = budget - spent;
-
-            if (spent > budget) {
-                status = String.format("Over Budget by ₹%.2f", -remaining);
-                statusColor = Color.RED;
-            } else {
-                status = String.format("Under Budget by ₹%.2f", remaining);
-                statusColor = new Color(0, 153, 51); // Dark Green
-            }
+        String resultText = String.format(
+                "<html><b>Budget for %s %d:</b> ₹%.2f<br>" +
+                        "<b>Amount Spent:</b> ₹%.2f<br>" +
+                        "<b>Status:</b> %s</html>",
+                monthName, year, budget.toBigDecimal(), spent.toBigDecimal(), status
+        );
 
-            String resultText = String.format(
-                    "<html><b>Budget for %s %d:</b> ₹%.2f<br>" +
-                            "<b>Amount Spent:</b> ₹%.2f<br>" +
-                            "<b>Status:</b> %s</html>",
-                    monthName, year, budget, spent, status
-            );
+        resultLabel.setText(resultText);
+        resultLabel.setForeground(statusColor);
+    }
 
-            resultLabel.setText(resultText);
-            resultLabel.setForeground(statusColor);
+    /**
+     * What the background check hands back to the EDT.
+     */
+    private static final class BudgetStatus {
+        final Money budget; // null if no budget is set
+        final Money spent;
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error checking budget: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        BudgetStatus(Money budget, Money spent) {
+            this.budget = budget;
+            this.spent = spent;
         }
     }
 }
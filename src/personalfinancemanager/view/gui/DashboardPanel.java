@@ -2,27 +2,37 @@ package personalfinancemanager.view.gui;
 
 import java.awt.*;
 import java.io.File;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.service.ExportFormat;
 import personalfinancemanager.service.ExportService;
+import personalfinancemanager.service.ExportSplit;
 import personalfinancemanager.service.FinanceService;
+import personalfinancemanager.service.ImportResult;
+import personalfinancemanager.service.ImportService;
+import personalfinancemanager.service.ProgressListener;
 
 public class DashboardPanel extends JPanel {
 
     private final MainFrame mainFrame;
     private final FinanceService financeService;
     private final ExportService exportService;
+    private final ImportService importService;
     private final JPanel contentPanel;
 
     public DashboardPanel(MainFrame mainFrame, FinanceService financeService) {
         this.mainFrame = mainFrame;
         this.financeService = financeService;
         this.exportService = new ExportService(financeService);
+        this.importService = new ImportService(financeService);
 
         // Modern background
         setBackground(GuiFactory.COLOR_LIGHT);
@@ -119,9 +129,12 @@ public class DashboardPanel extends JPanel {
         JPanel toolsSection = createSectionPanel("Tools", GuiFactory.COLOR_GRAY);
         JButton exportAllButton = GuiFactory.createButton("Export All Transactions", GuiFactory.COLOR_GRAY);
         JButton exportSummaryButton = GuiFactory.createButton("Export Monthly Summary", GuiFactory.COLOR_ACCENT);
+        JButton importButton = GuiFactory.createButton("Import Transactions (CSV)", GuiFactory.COLOR_ACCENT);
         toolsSection.add(exportAllButton);
         toolsSection.add(Box.createVerticalStrut(8));
         toolsSection.add(exportSummaryButton);
+        toolsSection.add(Box.createVerticalStrut(8));
+        toolsSection.add(importButton);
 
         // Add all sections to nav panel
         navPanel.add(transactionSection);
@@ -195,7 +208,12 @@ public class DashboardPanel extends JPanel {
             showPanel(summaryPanel);
         });
 
+        importButton.addActionListener(e -> {
+            importTransactionsWithWorker();
+        });
+
         logoutButton.addActionListener(e -> {
+            financeService.saveSnapshotAsync(Session.getUser().getUserId());
             Session.logout();
             mainFrame.switchToPanel("LOGIN");
         });
@@ -228,86 +246,181 @@ public class DashboardPanel extends JPanel {
     }
 
     /**
-     * Using a SwingWorker to prevent the GUI from freezing.
+     * Exports all transactions on a SwingWorker, showing a cancellable progress dialog.
      */
     private void exportAllTransactionsWithWorker() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setDialogTitle("Save All Transactions As...");
 
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        String defaultFilename = String.format("transactions_%s_%s.csv",
+        String defaultFilename = String.format("transactions_%s_%s",
                 Session.getUser().getUsername(), timestamp);
-        fileChooser.setSelectedFile(new File(defaultFilename));
-
-        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV File (*.csv)", "csv"));
+        fileChooser.setSelectedFile(new File(defaultFilename + ExportFormat.CSV.getExtension()));
+
+        // One filter per format; a zip export can also be split into a file per year or month
+        Map<FileFilter, ExportFormat> formats = new HashMap<>();
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        for (ExportFormat format : ExportFormat.values()) {
+            String extension = format.getExtension().substring(format.getExtension().lastIndexOf('.') + 1);
+            FileFilter filter = new FileNameExtensionFilter(format.getDescription(), extension);
+            formats.put(filter, format);
+            fileChooser.addChoosableFileFilter(filter);
+            if (format == ExportFormat.CSV) {
+                fileChooser.setFileFilter(filter);
+            }
+        }
+        JComboBox<ExportSplit> splitBox = new JComboBox<>(ExportSplit.values());
+        splitBox.setEnabled(false);
+        JPanel options = new JPanel(new BorderLayout(0, 5));
+        options.setBorder(new EmptyBorder(0, 10, 0, 0));
+        options.add(new JLabel("Zip contents:"), BorderLayout.NORTH);
+        options.add(splitBox, BorderLayout.CENTER);
+        fileChooser.setAccessory(options);
+        fileChooser.addPropertyChangeListener(JFileChooser.FILE_FILTER_CHANGED_PROPERTY,
+                evt -> splitBox.setEnabled(formats.get(fileChooser.getFileFilter()) == ExportFormat.ZIP));
 
         int userSelection = fileChooser.showSaveDialog(this);
 
         if (userSelection == JFileChooser.APPROVE_OPTION) {
 
             File selectedFile = fileChooser.getSelectedFile();
+            ExportFormat format = formats.getOrDefault(fileChooser.getFileFilter(), ExportFormat.CSV);
+            ExportSplit split = format == ExportFormat.ZIP
+                    ? (ExportSplit) splitBox.getSelectedItem() : ExportSplit.NONE;
 
-            if (!selectedFile.getAbsolutePath().endsWith(".csv")) {
-                selectedFile = new File(selectedFile.getAbsolutePath() + ".csv");
+            if (!selectedFile.getName().endsWith(format.getExtension())) {
+                selectedFile = new File(selectedFile.getAbsolutePath() + format.getExtension());
             }
 
 
             final File fileToSave = selectedFile;
 
 
-            // 1. Show a "loading" cursor so the user knows work is happening
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-
-            // 2. Create a new SwingWorker.
-            SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
-
-                private String errorMessage = null; // To store any error
+            ProgressMonitor monitor = new ProgressMonitor(this, "Exporting to " + fileToSave.getName(), "", 0, 100);
+            monitor.setMillisToDecideToPopup(200);
 
+            SwingWorker<Long, Void> worker = new SwingWorker<>() {
                 @Override
-                protected Boolean doInBackground() throws Exception {
-                    // 3.NEW WORKER THREAD.
-                    try {
-                        int userId = Session.getUser().getUserId();
-                        return exportService.exportAllTransactions(userId, fileToSave);
-                    } catch (IOException ex) {
-                        errorMessage = ex.getMessage(); // Save error
-                        return false; // Indicate failure
-                    }
+                protected Long doInBackground() throws Exception {
+                    int userId = Session.getUser().getUserId();
+                    return exportService.exportAllTransactions(userId, fileToSave, format, split, new ProgressListener() {
+                        @Override
+                        public void onProgress(long done, long total) {
+                            if (total > 0) {
+                                setProgress((int) Math.min(100, done * 100 / total));
+                            }
+                        }
+
+                        @Override
+                        public boolean isCancelled() {
+                            return monitor.isCanceled();
+                        }
+                    });
                 }
 
                 @Override
                 protected void done() {
-                    // 4. This code runs back on the MAIN GUI THREAD (EDT).
-                    setCursor(Cursor.getDefaultCursor());
-
+                    // This code runs back on the MAIN GUI THREAD (EDT).
+                    monitor.close();
                     try {
-                        boolean success = get();
-
-                        if (success) {
+                        long written = get();
+                        if (written > 0) {
                             JOptionPane.showMessageDialog(DashboardPanel.this,
-                                    // This also uses the 'final' variable, which is fine
-                                    "Transactions exported successfully to:\n" + fileToSave.getAbsolutePath(),
+                                    written + " transactions exported successfully to:\n" + fileToSave.getAbsolutePath(),
                                     "Export Successful", JOptionPane.INFORMATION_MESSAGE);
-                        } else if (errorMessage != null) {
-                            // If we caught an error, show it
-                            throw new Exception(errorMessage);
-                        } else {
-                            // If no error, but success=false, it means no data
+                        } else if (written == 0) {
                             JOptionPane.showMessageDialog(DashboardPanel.this,
                                     "You have no transactions to export.",
                                     "Export Info", JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JOptionPane.showMessageDialog(DashboardPanel.this,
+                                    "Export cancelled. No file was saved.",
+                                    "Export Cancelled", JOptionPane.INFORMATION_MESSAGE);
                         }
                     } catch (Exception ex) {
-                        // Handle any exception that happened
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
                         JOptionPane.showMessageDialog(DashboardPanel.this,
-                                "An error occurred while saving the file:\n" + ex.getMessage(),
+                                "An error occurred while saving the file:\n" + cause.getMessage(),
                                 "Export Error", JOptionPane.ERROR_MESSAGE);
                     }
                 }
             };
-
-            // 6. Start the worker thread!
+            worker.addPropertyChangeListener(evt -> {
+                if ("progress".equals(evt.getPropertyName())) {
+                    int progress = (Integer) evt.getNewValue();
+                    monitor.setProgress(progress);
+                    monitor.setNote(progress + "% done");
+                }
+            });
             worker.execute();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Imports a CSV statement on a SwingWorker, showing a cancellable progress dialog.
+     */
+    private void importTransactionsWithWorker() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Transactions From...");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV File or Binary Backup (*.csv, *.pfma)", "csv", "pfma"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        final File fileToImport = fileChooser.getSelectedFile();
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + fileToImport.getName(), "", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+
+        SwingWorker<ImportResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ImportResult doInBackground() throws Exception {
+                int userId = Session.getUser().getUserId();
+                return importService.importTransactions(userId, fileToImport, new ProgressListener() {
+                    @Override
+                    public void onProgress(long done, long total) {
+                        if (total > 0) {
+                            setProgress((int) Math.min(100, done * 100 / total));
+                        }
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return monitor.isCanceled();
+                    }
+                });
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    ImportResult result = get();
+                    StringBuilder message = new StringBuilder(result.toString());
+                    List<String> errors = result.getErrors();
+                    for (int i = 0; i < Math.min(10, errors.size()); i++) {
+                        message.append("\n").append(errors.get(i));
+                    }
+                    if (errors.size() > 10) {
+                        message.append("\n...");
+                    }
+                    JOptionPane.showMessageDialog(DashboardPanel.this, message.toString(),
+                            "Import Finished", result.getSkipped() > 0
+                                    ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(DashboardPanel.this,
+                            "An error occurred while importing the file:\n" + cause.getMessage(),
+                            "Import Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                int progress = (Integer) evt.getNewValue();
+                monitor.setProgress(progress);
+                monitor.setNote(progress + "% done");
+            }
+        });
+        worker.execute();
+    }
+}
@@ -110,6 +110,8 @@ public class LoginPanel extends JPanel {
 
                 if (user != null) {
                     Session.setUser(user);
+                    // Serve the first screens from the local snapshot while MySQL catches up
+                    mainFrame.getFinanceService().warmUpAsync(user.getUserId());
                     DashboardPanel dashboard = new DashboardPanel(mainFrame, mainFrame.getFinanceService());
                     mainFrame.addPanel(dashboard, "DASHBOARD");
                     mainFrame.switchToPanel("DASHBOARD");
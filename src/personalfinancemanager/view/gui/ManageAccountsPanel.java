@@ -2,9 +2,9 @@ package personalfinancemanager.view.gui;
 
 import java.awt.*;
 import javax.swing.*;
-import java.math.BigDecimal;
 import java.util.List;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.models.Account;
 import personalfinancemanager.service.FinanceService;
 
@@ -15,6 +15,9 @@ public class ManageAccountsPanel extends JPanel {
     private final JList<Account> accountList;
     private final JTextField nameField;
     private final JTextField balanceField;
+    private final JButton addButton;
+    private final JButton deleteButton;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public ManageAccountsPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -31,7 +34,7 @@ public class ManageAccountsPanel extends JPanel {
         balanceField = new JTextField(10);
         addPanel.add(balanceField);
 
-        JButton addButton = new JButton("Create Account");
+        addButton = new JButton("Create Account");
         addPanel.add(addButton);
 
         add(addPanel, BorderLayout.NORTH);
@@ -48,7 +51,7 @@ public class ManageAccountsPanel extends JPanel {
 
         // --- 3. NEW: Panel for deletion (at the bottom) ---
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton deleteButton = new JButton("Delete Selected Account");
+        deleteButton = new JButton("Delete Selected Account");
         bottomPanel.add(deleteButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
@@ -64,21 +67,28 @@ public class ManageAccountsPanel extends JPanel {
     }
 
     private void loadAccounts() {
-        try {
-            int userId = Session.getUser().getUserId();
-            // This uses the method from your FinanceService.java
-            List<Account> accounts = financeService.getAccountsByUser(userId);
+        int userId = Session.getUser().getUserId();
+        // Fetched in the background; the list is filled in when the result arrives
+        loader.load(() -> financeService.getAccountsByUser(userId),
+                this::showAccounts,
+                e -> JOptionPane.showMessageDialog(this, "Error loading accounts: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
 
-            listModel.clear();
-            for (Account acc : accounts) {
-                listModel.addElement(acc);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading accounts: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    private void showAccounts(List<Account> accounts) {
+        listModel.clear();
+        for (Account acc : accounts) {
+            listModel.addElement(acc);
         }
     }
 
+    /**
+     * Disables the buttons while a create/delete is being written, so it can't be sent twice.
+     */
+    private void setSaving(boolean saving) {
+        addButton.setEnabled(!saving);
+        deleteButton.setEnabled(!saving);
+    }
+
     private void createAccount() {
         String name = nameField.getText();
         String balanceText = balanceField.getText();
@@ -88,33 +98,35 @@ public class ManageAccountsPanel extends JPanel {
             return;
         }
 
-        double balance;
+        Money balance;
         try {
-            // Use BigDecimal for safe parsing, then convert to double
-            balance = new BigDecimal(balanceText).doubleValue();
-        } catch (NumberFormatException ex) {
+            balance = Money.parse(balanceText);
+        } catch (NumberFormatException | ArithmeticException ex) {
             JOptionPane.showMessageDialog(this, "Invalid balance. Please enter a valid number.", "Input Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        try {
-            int userId = Session.getUser().getUserId();
-            // This uses the method from your FinanceService.java
-            boolean success = financeService.createAccount(userId, name, balance);
-
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Account created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                // Clear the form and reload the list
-                nameField.setText("");
-                balanceField.setText("");
-                loadAccounts();
-            } else {
-                throw new Exception("Save operation returned false.");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error creating account: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        int userId = Session.getUser().getUserId();
+        setSaving(true);
+        loader.submit(() -> {
+                    // This uses the method from your FinanceService.java
+                    if (!financeService.createAccount(userId, name, balance)) {
+                        throw new Exception("Save operation returned false.");
+                    }
+                    return true;
+                },
+                saved -> {
+                    setSaving(false);
+                    JOptionPane.showMessageDialog(this, "Account created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    // Clear the form and reload the list
+                    nameField.setText("");
+                    balanceField.setText("");
+                    loadAccounts();
+                },
+                e -> {
+                    setSaving(false);
+                    JOptionPane.showMessageDialog(this, "Error creating account: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     /**
@@ -140,22 +152,25 @@ public class ManageAccountsPanel extends JPanel {
         );
 
         if (choice == JOptionPane.YES_OPTION) {
-            try {
-                // 4. Call the delete method from your FinanceService
-                boolean success = financeService.deleteAccount(selectedAccount.getAccountId());
-
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "Account deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    // 5. Refresh the list
-                    loadAccounts();
-                } else {
-                    // This might fail if the account has transactions (foreign key constraint)
-                    throw new Exception("Delete operation returned false.");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error deleting account: " + e.getMessage() + "\n(Note: You cannot delete an account that has transactions.)", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // 4. Call the delete method from your FinanceService (in the background)
+            setSaving(true);
+            loader.submit(() -> {
+                        if (!financeService.deleteAccount(selectedAccount.getAccountId())) {
+                            // This might fail if the account has transactions (foreign key constraint)
+                            throw new Exception("Delete operation returned false.");
+                        }
+                        return true;
+                    },
+                    deleted -> {
+                        setSaving(false);
+                        JOptionPane.showMessageDialog(this, "Account deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        // 5. Refresh the list
+                        loadAccounts();
+                    },
+                    e -> {
+                        setSaving(false);
+                        JOptionPane.showMessageDialog(this, "Error deleting account: " + e.getMessage() + "\n(Note: You cannot delete an account that has transactions.)", "Error", JOptionPane.ERROR_MESSAGE);
+                    });
         }
     }
 
@@ -175,7 +190,7 @@ public class ManageAccountsPanel extends JPanel {
                                 "<span style='float: right; color: gray;'>     ₹%.2f</span>" +
                                 "</body></html>",
                         account.getName(),
-                        account.getBalance()
+                        account.getBalance().toBigDecimal()
                 );
                 setText(text);
                 setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5)); // Add padding
@@ -13,6 +13,9 @@ public class ManageCategoriesPanel extends JPanel {
     private final DefaultListModel<Category> listModel;
     private final JList<Category> categoryList;
     private final JTextField nameField;
+    private final JButton addButton;
+    private final JButton deleteButton;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public ManageCategoriesPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -25,7 +28,7 @@ public class ManageCategoriesPanel extends JPanel {
         nameField = new JTextField(20);
         addPanel.add(nameField);
 
-        JButton addButton = new JButton("Create Category");
+        addButton = new JButton("Create Category");
         addPanel.add(addButton);
 
         add(addPanel, BorderLayout.NORTH);
@@ -52,7 +55,7 @@ public class ManageCategoriesPanel extends JPanel {
 
         // --- 3. Panel for deletion (at the bottom) ---
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        JButton deleteButton = new JButton("Delete Selected Category");
+        deleteButton = new JButton("Delete Selected Category");
         bottomPanel.add(deleteButton);
         add(bottomPanel, BorderLayout.SOUTH);
 
@@ -65,21 +68,28 @@ public class ManageCategoriesPanel extends JPanel {
     }
 
     private void loadCategories() {
-        try {
-            int userId = Session.getUser().getUserId();
-            // This uses the method from your FinanceService.java
-            List<Category> categories = financeService.getCategoriesByUser(userId);
-
-            listModel.clear();
-            for (Category cat : categories) {
-                listModel.addElement(cat);
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error loading categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        int userId = Session.getUser().getUserId();
+        // Fetched in the background; the list is filled in when the result arrives
+        loader.load(() -> financeService.getCategoriesByUser(userId),
+                this::showCategories,
+                e -> JOptionPane.showMessageDialog(this, "Error loading categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+
+    private void showCategories(List<Category> categories) {
+        listModel.clear();
+        for (Category cat : categories) {
+            listModel.addElement(cat);
         }
     }
 
+    /**
+     * Disables the buttons while a create/delete is being written, so it can't be sent twice.
+     */
+    private void setSaving(boolean saving) {
+        addButton.setEnabled(!saving);
+        deleteButton.setEnabled(!saving);
+    }
+
     private void createCategory() {
         String name = nameField.getText();
 
@@ -88,23 +98,26 @@ public class ManageCategoriesPanel extends JPanel {
             return;
         }
 
-        try {
-            int userId = Session.getUser().getUserId();
-            // This uses the method from your FinanceService.java
-            boolean success = financeService.createCategory(userId, name);
-
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Category created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                // Clear the form and reload the list
-                nameField.setText("");
-                loadCategories();
-            } else {
-                throw new Exception("Save operation returned false.");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error creating category: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        int userId = Session.getUser().getUserId();
+        setSaving(true);
+        loader.submit(() -> {
+                    // This uses the method from your FinanceService.java
+                    if (!financeService.createCategory(userId, name)) {
+                        throw new Exception("Save operation returned false.");
+                    }
+                    return true;
+                },
+                saved -> {
+                    setSaving(false);
+                    JOptionPane.showMessageDialog(this, "Category created successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    // Clear the form and reload the list
+                    nameField.setText("");
+                    loadCategories();
+                },
+                e -> {
+                    setSaving(false);
+                    JOptionPane.showMessageDialog(this, "Error creating category: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
 
     private void deleteCategory() {
@@ -127,21 +140,24 @@ public class ManageCategoriesPanel extends JPanel {
         );
 
         if (choice == JOptionPane.YES_OPTION) {
-            try {
-                // 4. Call the delete method from FinanceService
-                boolean success = financeService.deleteCategory(selectedCategory.getCategoryId());
-
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "Category deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    // 5. Refresh the list
-                    loadCategories();
-                } else {
-                    throw new Exception("Delete operation returned false.");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error deleting category: " + e.getMessage() + "\n(Note: You cannot delete a category that is used by transactions.)", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            // 4. Call the delete method from FinanceService (in the background)
+            setSaving(true);
+            loader.submit(() -> {
+                        if (!financeService.deleteCategory(selectedCategory.getCategoryId())) {
+                            throw new Exception("Delete operation returned false.");
+                        }
+                        return true;
+                    },
+                    deleted -> {
+                        setSaving(false);
+                        JOptionPane.showMessageDialog(this, "Category deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        // 5. Refresh the list
+                        loadCategories();
+                    },
+                    e -> {
+                        setSaving(false);
+                        JOptionPane.showMessageDialog(this, "Error deleting category: " + e.getMessage() + "\n(Note: You cannot delete a category that is used by transactions.)", "Error", JOptionPane.ERROR_MESSAGE);
+                    });
         }
     }
 }
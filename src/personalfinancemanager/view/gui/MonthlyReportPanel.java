@@ -7,6 +7,7 @@ import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.util.Map;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.service.FinanceService;
 
 public class MonthlyReportPanel extends JPanel {
@@ -17,6 +18,7 @@ public class MonthlyReportPanel extends JPanel {
     private final JTable reportTable;
     private final DefaultTableModel tableModel;
     private final JLabel totalLabel;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public MonthlyReportPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -59,7 +61,7 @@ public class MonthlyReportPanel extends JPanel {
         // Format the "Amount" column as currency
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN"));
         reportTable.getColumnModel().getColumn(1).setCellRenderer((table, value, isSelected, hasFocus, row, column) -> {
-            JLabel label = new JLabel(currencyFormat.format(value));
+            JLabel label = new JLabel(currencyFormat.format(((Money) value).toBigDecimal()));
             label.setOpaque(true);
             label.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
             label.setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
@@ -84,46 +86,48 @@ public class MonthlyReportPanel extends JPanel {
     }
 
     private void generateReport() {
+        // 1. Get and validate Year
+        int year;
         try {
-            // 1. Get and validate Year
-            int year;
-            try {
-                year = Integer.parseInt(yearField.getText());
-                if (year < 2000 || year > 2100) {
-                    throw new NumberFormatException();
-                }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
+            year = Integer.parseInt(yearField.getText());
+            if (year < 2000 || year > 2100) {
+                throw new NumberFormatException();
             }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            // 2. Get Month
-            int month = monthComboBox.getSelectedIndex() + 1;
-
-            // 3. Call the service
-            int userId = Session.getUser().getUserId();
-            Map<String, Double> breakdown = financeService.getMonthlyCategoryBreakdown(userId, year, month);
-
-            // 4. Populate the table
-            tableModel.setRowCount(0); // Clear old data
-            double total = 0.0;
+        // 2. Get Month
+        int month = monthComboBox.getSelectedIndex() + 1;
+
+        // 3. Call the service in the background (a newer click cancels this one)
+        int userId = Session.getUser().getUserId();
+        totalLabel.setText("Loading...");
+        loader.load(() -> financeService.getMonthlyCategoryBreakdown(userId, year, month),
+                this::showReport,
+                e -> {
+                    totalLabel.setText("Total Expenses: -");
+                    JOptionPane.showMessageDialog(this, "Error generating report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
-            if (breakdown.isEmpty()) {
-                tableModel.addRow(new Object[]{"No expenses found for this month.", 0.0});
-            } else {
-                for (Map.Entry<String, Double> entry : breakdown.entrySet()) {
-                    tableModel.addRow(new Object[]{entry.getKey(), entry.getValue()});
-                    total += entry.getValue();
-                }
+    private void showReport(Map<String, Money> breakdown) {
+        // 4. Populate the table
+        tableModel.setRowCount(0); // Clear old data
+        long totalMinor = 0;
+
+        if (breakdown.isEmpty()) {
+            tableModel.addRow(new Object[]{"No expenses found for this month.", Money.ZERO});
+        } else {
+            for (Map.Entry<String, Money> entry : breakdown.entrySet()) {
+                tableModel.addRow(new Object[]{entry.getKey(), entry.getValue()});
+                totalMinor += entry.getValue().getMinorUnits();
             }
-
-            // 5. Update total label
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN"));
-            totalLabel.setText("Total Expenses: " + currencyFormat.format(total));
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error generating report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
+
+        // 5. Update total label
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN"));
+        totalLabel.setText("Total Expenses: " + currencyFormat.format(Money.ofMinor(totalMinor).toBigDecimal()));
     }
 }
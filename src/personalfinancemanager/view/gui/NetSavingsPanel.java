@@ -5,7 +5,9 @@ import javax.swing.*;
 import java.text.NumberFormat;
 import java.util.Locale;
 import java.time.LocalDate;
+import java.util.concurrent.Callable;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.service.FinanceService;
 
 public class NetSavingsPanel extends JPanel {
@@ -14,6 +16,7 @@ public class NetSavingsPanel extends JPanel {
     private final JLabel savingsLabel;
     private final JComboBox<String> monthComboBox;
     private final JTextField yearField;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public NetSavingsPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -67,55 +70,55 @@ public class NetSavingsPanel extends JPanel {
     }
 
     private void generateReport() {
-        try {
-            int userId = Session.getUser().getUserId();
-            double netSavings = 0.0;
-
-            int selectedMonthIndex = monthComboBox.getSelectedIndex();
-
-            if (selectedMonthIndex == 0) { // "All-Time"
-                // This is the original method call
-                netSavings = financeService.getNetSavings(userId);
-            } else {
-                // Monthly calculation
-                int month = selectedMonthIndex; // Index 1 is month 1 (Jan)
-                int year;
-                try {
-                    year = Integer.parseInt(yearField.getText());
-                    if (year < 2000 || year > 2100) throw new NumberFormatException();
-                } catch (NumberFormatException ex) {
-                    JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-
-                // **** This is the NEW method we will add to FinanceService ****
-                netSavings = financeService.getNetSavingsByMonth(userId, year, month);
+        int userId = Session.getUser().getUserId();
+        int selectedMonthIndex = monthComboBox.getSelectedIndex();
+
+        Callable<Money> query;
+        if (selectedMonthIndex == 0) { // "All-Time"
+            query = () -> financeService.getNetSavings(userId);
+        } else {
+            // Monthly calculation
+            int month = selectedMonthIndex; // Index 1 is month 1 (Jan)
+            int year;
+            try {
+                year = Integer.parseInt(yearField.getText());
+                if (year < 2000 || year > 2100) throw new NumberFormatException();
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            query = () -> financeService.getNetSavingsByMonth(userId, year, month);
+        }
 
-            // --- Display the result (same as before) ---
-            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "IN"));
-            String savingsText = currencyFormat.format(netSavings);
-
-            String htmlText;
-            if (netSavings >= 0) {
-                // Display in green
-                htmlText = String.format(
-                        "<html>Your Net Savings are:<br><center><font color='#008800'>%s</font></center></html>",
-                        savingsText
-                );
-            } else {
-                // Display in red
-                htmlText = String.format(
-                        "<html>Your Net Deficit is:<br><center><font color='#D80000'>%s</font></center></html>",
-                        savingsText
-                );
-            }
-            savingsLabel.setText(htmlText);
-
-        } catch (Exception e) {
-            e.printStackTrace();
+        savingsLabel.setText("Loading...");
+        loader.load(query, this::showSavings, e -> {
             savingsLabel.setText("<html><font color='red'>Error loading savings.</font></html>");
             JOptionPane.showMessageDialog(this, "Error loading net savings: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void showSavings(Money netSavings) {
+        if (netSavings == null) {
+            savingsLabel.setText("<html><font color='red'>Error loading savings.</font></html>");
+            return;
+        }
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "IN"));
+        String savingsText = currencyFormat.format(netSavings.toBigDecimal());
+
+        String htmlText;
+        if (netSavings.signum() >= 0) {
+            // Display in green
+            htmlText = String.format(
+                    "<html>Your Net Savings are:<br><center><font color='#008800'>%s</font></center></html>",
+                    savingsText
+            );
+        } else {
+            // Display in red
+            htmlText = String.format(
+                    "<html>Your Net Deficit is:<br><center><font color='#D80000'>%s</font></center></html>",
+                    savingsText
+            );
         }
+        savingsLabel.setText(htmlText);
     }
 }
\ No newline at end of file
@@ -2,9 +2,9 @@ package personalfinancemanager.view.gui;
 
 import java.awt.*;
 import javax.swing.*;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.service.FinanceService;
 
 public class SetBudgetPanel extends JPanel {
@@ -13,6 +13,8 @@ public class SetBudgetPanel extends JPanel {
     private final JTextField yearField;
     private final JComboBox<String> monthComboBox;
     private final JTextField amountField;
+    private final JButton saveButton;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public SetBudgetPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -72,7 +74,7 @@ public class SetBudgetPanel extends JPanel {
         gbc.gridy = 4;
         gbc.gridwidth = 2;
         gbc.anchor = GridBagConstraints.CENTER;
-        JButton saveButton = new JButton("Set Budget");
+        saveButton = new JButton("Set Budget");
         add(saveButton, gbc);
 
         // --- Action Listener ---
@@ -80,51 +82,52 @@ public class SetBudgetPanel extends JPanel {
     }
 
     private void setBudget() {
+        // 1. Get and validate Year
+        int year;
         try {
-            // 1. Get and validate Year
-            int year;
-            try {
-                year = Integer.parseInt(yearField.getText());
-
-                // *** THIS IS THE FIX ***
-                // Add a check to ensure the year is reasonable
-                if (year < 2000 || year > 2100) {
-                    throw new NumberFormatException("Year must be between 2000 and 2100.");
-                }
-
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year (e.g., 2025).", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+            year = Integer.parseInt(yearField.getText());
 
-            // 2. Get Month (index + 1)
-            int month = monthComboBox.getSelectedIndex() + 1;
-
-            // 3. Get and validate Amount
-            double amount;
-            try {
-                amount = new BigDecimal(amountField.getText()).doubleValue();
-                if (amount < 0) throw new NumberFormatException("Amount cannot be negative.");
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
+            // *** THIS IS THE FIX ***
+            // Add a check to ensure the year is reasonable
+            if (year < 2000 || year > 2100) {
+                throw new NumberFormatException("Year must be between 2000 and 2100.");
             }
 
-            // 4. Call the service
-            int userId = Session.getUser().getUserId();
-            boolean success = financeService.setMonthlyBudget(userId, year, month, amount);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year (e.g., 2025).", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Budget set successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                amountField.setText(""); // Clear the amount field
-            } else {
-                throw new Exception("Save operation returned false.");
-            }
+        // 2. Get Month (index + 1)
+        int month = monthComboBox.getSelectedIndex() + 1;
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error setting budget: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        // 3. Get and validate Amount
+        Money amount;
+        try {
+            amount = Money.parse(amountField.getText());
+            if (amount.isNegative()) throw new NumberFormatException("Amount cannot be negative.");
+        } catch (NumberFormatException | ArithmeticException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        // 4. Call the service in the background
+        int userId = Session.getUser().getUserId();
+        saveButton.setEnabled(false);
+        loader.submit(() -> {
+                    if (!financeService.setMonthlyBudget(userId, year, month, amount)) {
+                        throw new Exception("Save operation returned false.");
+                    }
+                    return true;
+                },
+                saved -> {
+                    saveButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Budget set successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    amountField.setText(""); // Clear the amount field
+                },
+                e -> {
+                    saveButton.setEnabled(true);
+                    JOptionPane.showMessageDialog(this, "Error setting budget: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
     }
 }
-
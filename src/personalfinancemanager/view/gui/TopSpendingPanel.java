@@ -7,6 +7,7 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import personalfinancemanager.auth.Session;
+import personalfinancemanager.models.Money;
 import personalfinancemanager.service.FinanceService;
 
 public class TopSpendingPanel extends JPanel {
@@ -15,6 +16,7 @@ public class TopSpendingPanel extends JPanel {
     private final JTextField yearField;
     private final JComboBox<String> monthComboBox;
     private final JTextArea resultArea; // Use a text area for simple list
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public TopSpendingPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -57,51 +59,52 @@ public class TopSpendingPanel extends JPanel {
     }
 
     private void generateReport() {
+        // 1. Get and validate Year
+        int year;
         try {
-            // 1. Get and validate Year
-            int year;
-            try {
-                year = Integer.parseInt(yearField.getText());
-                if (year < 2000 || year > 2100) {
-                    throw new NumberFormatException();
-                }
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            // 2. Get Month
-            int month = monthComboBox.getSelectedIndex() + 1;
-
-            // 3. Call the service
-            int userId = Session.getUser().getUserId();
-            // This calls the getTopCategories method from your FinanceService
-            List<Map.Entry<String, Double>> topCategories = financeService.getTopCategories(userId, year, month);
-
-            // 4. Format and display the results
-            StringBuilder reportText = new StringBuilder();
-            if (topCategories.isEmpty()) {
-                reportText.append("No spending data found for this month.");
-            } else {
-                reportText.append(String.format("Top Spending for %s %d:\n\n",
-                        monthComboBox.getSelectedItem().toString().split(" ")[0], year));
-
-                NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN"));
-                int rank = 1;
-                for (Map.Entry<String, Double> entry : topCategories) {
-                    // Format into a neat, aligned string
-                    reportText.append(String.format("%d. %-25s %s\n",
-                            rank++,
-                            entry.getKey(),
-                            currencyFormat.format(entry.getValue())));
-                }
+            year = Integer.parseInt(yearField.getText());
+            if (year < 2000 || year > 2100) {
+                throw new NumberFormatException();
             }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid year. Please enter a valid 4-digit year.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
-            resultArea.setText(reportText.toString());
+        // 2. Get Month
+        int month = monthComboBox.getSelectedIndex() + 1;
+        String monthName = monthComboBox.getSelectedItem().toString().split(" ")[0];
+
+        // 3. Call the service in the background
+        int userId = Session.getUser().getUserId();
+        resultArea.setText("Loading...");
+        loader.load(() -> financeService.getTopCategories(userId, year, month),
+                topCategories -> showTopCategories(topCategories, monthName, year),
+                e -> {
+                    resultArea.setText("");
+                    JOptionPane.showMessageDialog(this, "Error generating report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                });
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error generating report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    private void showTopCategories(List<Map.Entry<String, Money>> topCategories, String monthName, int year) {
+        // 4. Format and display the results
+        StringBuilder reportText = new StringBuilder();
+        if (topCategories.isEmpty()) {
+            reportText.append("No spending data found for this month.");
+        } else {
+            reportText.append(String.format("Top Spending for %s %d:\n\n", monthName, year));
+
+            NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN"));
+            int rank = 1;
+            for (Map.Entry<String, Money> entry : topCategories) {
+                // Format into a neat, aligned string
+                reportText.append(String.format("%d. %-25s %s\n",
+                        rank++,
+                        entry.getKey(),
+                        currencyFormat.format(entry.getValue().toBigDecimal())));
+            }
         }
+
+        resultArea.setText(reportText.toString());
     }
-}
+}
\ No newline at end of file
@@ -1,13 +1,15 @@
 package personalfinancemanager.view.gui;
 
 import java.awt.*;
-import java.math.BigDecimal;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.text.NumberFormat;
-import java.util.List;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableColumnModel;
 import personalfinancemanager.auth.Session;
-import personalfinancemanager.models.Transaction;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionView;
 import personalfinancemanager.service.FinanceService;
 
 public class TransactionPanel extends JPanel {
@@ -15,6 +17,7 @@ public class TransactionPanel extends JPanel {
     private final FinanceService financeService;
     private final JTable transactionTable;
     private final TransactionTableModel tableModel;
+    private final AsyncLoader loader = new AsyncLoader(this);
 
     public TransactionPanel(FinanceService financeService) {
         this.financeService = financeService;
@@ -22,10 +25,21 @@ public class TransactionPanel extends JPanel {
         setBorder(BorderFactory.createTitledBorder("View, Edit, or Delete Transactions"));
 
         // --- 1. Table (Center) ---
-        List<Transaction> transactions = financeService.getAllTransactions(Session.getUser().getUserId());
-        tableModel = new TransactionTableModel(transactions);
+        // Rows are fetched in blocks as the user scrolls (see TransactionTableModel)
+        tableModel = new TransactionTableModel(financeService, Session.getUser().getUserId());
         transactionTable = new JTable(tableModel);
-        transactionTable.setAutoCreateRowSorter(true); // Enable sorting
+
+        // Sorting is done by the database: clicking a header re-queries in that order
+        transactionTable.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = transactionTable.columnAtPoint(e.getPoint());
+                if (column == -1) return;
+                tableModel.setSort(transactionTable.convertColumnIndexToModel(column));
+                updateSortIndicator();
+            }
+        });
+        updateSortIndicator();
 
         // Ensure only one row can be selected
         transactionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -34,8 +48,8 @@ public class TransactionPanel extends JPanel {
         DefaultTableCellRenderer currencyRenderer = new DefaultTableCellRenderer() {
             @Override
             public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
-                if (value instanceof Double) {
-                    value = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN")).format(value);
+                if (value instanceof Money amount) {
+                    value = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN")).format(amount.toBigDecimal());
                 }
                 return super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
             }
@@ -55,37 +69,57 @@ public class TransactionPanel extends JPanel {
         // --- 3. Action Listeners ---
         deleteButton.addActionListener(e -> deleteSelectedTransaction());
         editButton.addActionListener(e -> editSelectedTransaction());
+
+        // --- 4. Row count; visible blocks load on first paint ---
+        tableModel.reload();
+    }
+
+    /**
+     * Shows an arrow on the header of the column the data is sorted by.
+     */
+    private void updateSortIndicator() {
+        TableColumnModel columns = transactionTable.getColumnModel();
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            int modelColumn = columns.getColumn(i).getModelIndex();
+            String name = tableModel.getColumnName(modelColumn);
+            if (modelColumn == tableModel.getSortColumn()) {
+                name += tableModel.isSortAscending() ? " \u25B2" : " \u25BC";
+            }
+            columns.getColumn(i).setHeaderValue(name);
+        }
+        transactionTable.getTableHeader().repaint();
     }
 
     /**
      * Gets the selected transaction, confirms, and deletes it.
      */
     private void deleteSelectedTransaction() {
-        Transaction tx = getSelectedTransaction();
-        if (tx == null) return; // No transaction selected
+        int modelRow = getSelectedModelRow();
+        if (modelRow == -1) return; // No transaction selected
+        TransactionView tx = tableModel.getTransactionAt(modelRow);
+        if (tx == null) return; // Row is still loading
 
         int choice = JOptionPane.showConfirmDialog(
                 this,
                 "Are you sure you want to delete this " + tx.getType() + " of " +
-                        NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN")).format(tx.getAmount()) + "?",
+                        NumberFormat.getCurrencyInstance(new java.util.Locale("en", "IN")).format(tx.getAmount().toBigDecimal()) + "?",
                 "Confirm Deletion",
                 JOptionPane.YES_NO_OPTION,
                 JOptionPane.WARNING_MESSAGE
         );
 
         if (choice == JOptionPane.YES_OPTION) {
-            try {
-                boolean success = financeService.deleteTransaction(tx.getTransactionId());
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "Transaction deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    refreshTable(); // Refresh the table
-                } else {
-                    throw new Exception("Delete operation returned false.");
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Error deleting transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            loader.submit(() -> {
+                        if (!financeService.deleteTransaction(tx.getTransactionId())) {
+                            throw new Exception("Delete operation returned false.");
+                        }
+                        return true;
+                    },
+                    deleted -> {
+                        JOptionPane.showMessageDialog(this, "Transaction deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                        tableModel.reload(); // Rows below shift up; only visible blocks are re-fetched
+                    },
+                    e -> JOptionPane.showMessageDialog(this, "Error deleting transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
         }
     }
 
@@ -93,71 +127,62 @@ public class TransactionPanel extends JPanel {
      * Gets the selected transaction and opens dialogs to edit it.
      */
     private void editSelectedTransaction() {
-        Transaction tx = getSelectedTransaction();
-        if (tx == null) return; // No transaction selected
+        int modelRow = getSelectedModelRow();
+        if (modelRow == -1) return; // No transaction selected
+        TransactionView tx = tableModel.getTransactionAt(modelRow);
+        if (tx == null) return; // Row is still loading
 
-        try {
-            // 1. Get new Amount
-            String newAmountStr = JOptionPane.showInputDialog(
-                    this,
-                    "Enter new amount:",
-                    tx.getAmount() // Pre-fill with old amount
-            );
-            if (newAmountStr == null) return; // User cancelled
-
-            // 2. Get new Note
-            String newNote = JOptionPane.showInputDialog(
-                    this,
-                    "Enter new note:",
-                    tx.getNote() // Pre-fill with old note
-            );
-            if (newNote == null) newNote = ""; // Allow empty note
-
-            // 3. Validate Amount
-            double newAmount;
-            try {
-                newAmount = new BigDecimal(newAmountStr).doubleValue();
-                if (newAmount <= 0) throw new NumberFormatException("Amount must be positive.");
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
+        // 1. Get new Amount
+        String newAmountStr = JOptionPane.showInputDialog(
+                this,
+                "Enter new amount:",
+                tx.getAmount() // Pre-fill with old amount
+        );
+        if (newAmountStr == null) return; // User cancelled
 
-            // 4. Call service
-            boolean success = financeService.updateTransactionAmountAndNote(tx.getTransactionId(), newAmount, newNote);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Transaction updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable(); // Refresh the table
-            } else {
-                throw new Exception("Update operation returned false.");
-            }
+        // 2. Get new Note
+        String enteredNote = JOptionPane.showInputDialog(
+                this,
+                "Enter new note:",
+                tx.getNote() // Pre-fill with old note
+        );
+        String newNote = enteredNote == null ? "" : enteredNote; // Allow empty note
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, "Error updating transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        // 3. Validate Amount
+        Money newAmount;
+        try {
+            newAmount = Money.parse(newAmountStr);
+            if (!newAmount.isPositive()) throw new NumberFormatException("Amount must be positive.");
+        } catch (NumberFormatException | ArithmeticException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid amount. Please enter a positive number.", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        // 4. Call service in the background
+        loader.submit(() -> {
+                    if (!financeService.updateTransactionAmountAndNote(tx.getTransactionId(), newAmount, newNote)) {
+                        throw new Exception("Update operation returned false.");
+                    }
+                    return true;
+                },
+                updated -> {
+                    JOptionPane.showMessageDialog(this, "Transaction updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    // Update the row in place rather than reloading every page
+                    tableModel.transactionUpdated(modelRow, tx.withAmountAndNote(newAmount, newNote));
+                },
+                e -> JOptionPane.showMessageDialog(this, "Error updating transaction: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     /**
-     * Helper method to get the currently selected transaction from the table.
+     * Helper method to get the model row of the currently selected transaction, or -1.
      */
-    private Transaction getSelectedTransaction() {
+    private int getSelectedModelRow() {
         int selectedViewRow = transactionTable.getSelectedRow();
         if (selectedViewRow == -1) {
             JOptionPane.showMessageDialog(this, "Please select a transaction from the table first.", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return null;
+            return -1;
         }
 
-        // IMPORTANT: Convert view row to model row in case of sorting
-        int modelRow = transactionTable.convertRowIndexToModel(selectedViewRow);
-        return tableModel.getTransactionAt(modelRow);
-    }
-
-    /**
-     * Re-fetches all transactions from the database and updates the table.
-     */
-    private void refreshTable() {
-        List<Transaction> transactions = financeService.getAllTransactions(Session.getUser().getUserId());
-        tableModel.setTransactions(transactions);
+        return transactionTable.convertRowIndexToModel(selectedViewRow);
     }
 }
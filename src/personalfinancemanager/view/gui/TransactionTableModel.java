@@ -1,24 +1,115 @@
 package personalfinancemanager.view.gui;
 
 import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
-import personalfinancemanager.models.Transaction;
+import personalfinancemanager.dao.TransactionSort;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionView;
+import personalfinancemanager.service.FinanceService;
+import personalfinancemanager.util.LruCache;
 
+/**
+ * A "virtual" table model: it only knows the row count up front and fetches rows
+ * in fixed-size blocks, in the background, as the JTable asks for them.
+ *
+ * Only the most recently used blocks are kept, so memory stays small however
+ * long the history is. Rows that are not loaded yet show as "Loading...".
+ * Sorting is done by the database (see setSort), not by a TableRowSorter.
+ * A block is fetched by seeking past the last row of the nearest block above it
+ * that was loaded before, so scrolling down doesn't re-read the rows above.
+ */
 public class TransactionTableModel extends AbstractTableModel {
 
-    // Make this modifiable
-    private List<Transaction> transactions;
-    private final String[] columnNames = {"ID", "Type", "Amount", "Timestamp", "Note"};
+    private static final int BLOCK_SIZE = 100;
+    private static final int MAX_CACHED_BLOCKS = 50; // at most ~5,000 rows in memory
+    private static final String LOADING = "Loading...";
+
+    // Shared by every table so opening the panel repeatedly doesn't pile up threads
+    private static final ExecutorService BLOCK_LOADER = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "transaction-block-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final FinanceService financeService;
+    private final int userId;
+    private final String[] columnNames = {"ID", "Type", "Amount", "Category", "Account", "Timestamp", "Note"};
+    private final TransactionSort[] columnSorts = {
+            TransactionSort.ID, TransactionSort.TYPE, TransactionSort.AMOUNT, TransactionSort.CATEGORY,
+            TransactionSort.ACCOUNT, TransactionSort.TIMESTAMP, TransactionSort.NOTE
+    };
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-    public TransactionTableModel(List<Transaction> transactions) {
-        this.transactions = transactions;
+    // Everything below is only touched on the Event Dispatch Thread
+    private final LruCache<Integer, List<TransactionView>> blocks = new LruCache<>(MAX_CACHED_BLOCKS);
+    private final Set<Integer> loadingBlocks = new HashSet<>();
+    // Last row of every full block loaded in this ordering; one row per block, so kept for all
+    private final TreeMap<Integer, TransactionView> blockEnds = new TreeMap<>();
+    private int rowCount;
+    private TransactionSort sort = TransactionSort.TIMESTAMP;
+    private boolean ascending = false;
+    // Bumped on every reload/sort so late answers for the old ordering are dropped
+    private int generation;
+
+    public TransactionTableModel(FinanceService financeService, int userId) {
+        this.financeService = financeService;
+        this.userId = userId;
+    }
+
+    /**
+     * Re-counts the rows and drops every cached block. Visible rows are re-fetched on repaint.
+     */
+    public void reload() {
+        int expectedGeneration = ++generation;
+        blocks.clear();
+        loadingBlocks.clear();
+        blockEnds.clear();
+        BLOCK_LOADER.submit(() -> {
+            Integer count = financeService.getTransactionCount(userId);
+            SwingUtilities.invokeLater(() -> {
+                if (expectedGeneration != generation) return;
+                rowCount = count == null ? 0 : count;
+                fireTableDataChanged();
+            });
+        });
+    }
+
+    /**
+     * Sorts by the given column; clicking the same column again flips the direction.
+     */
+    public void setSort(int columnIndex) {
+        TransactionSort newSort = columnSorts[columnIndex];
+        ascending = newSort == sort ? !ascending : true;
+        sort = newSort;
+        generation++;
+        blocks.clear();
+        loadingBlocks.clear();
+        blockEnds.clear();
+        fireTableDataChanged();
+    }
+
+    public int getSortColumn() {
+        for (int i = 0; i < columnSorts.length; i++) {
+            if (columnSorts[i] == sort) return i;
+        }
+        return -1;
+    }
+
+    public boolean isSortAscending() {
+        return ascending;
     }
 
     @Override
     public int getRowCount() {
-        return transactions.size();
+        return rowCount;
     }
 
     @Override
@@ -33,17 +124,24 @@ public class TransactionTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        Transaction tx = transactions.get(rowIndex);
+        TransactionView tx = getTransactionAt(rowIndex);
+        if (tx == null) {
+            return columnIndex == 1 ? LOADING : null;
+        }
         switch (columnIndex) {
             case 0:
                 return tx.getTransactionId();
             case 1:
                 return tx.getType();
             case 2:
-                return tx.getAmount(); // Return the raw Double for proper sorting
+                return tx.getAmount();
             case 3:
-                return tx.getTimestamp().format(formatter);
+                return tx.getCategoryName();
             case 4:
+                return tx.getAccountName();
+            case 5:
+                return tx.getTimestamp().format(formatter);
+            case 6:
                 return tx.getNote();
             default:
                 return null;
@@ -52,35 +150,77 @@ public class TransactionTableModel extends AbstractTableModel {
 
     @Override
     public Class<?> getColumnClass(int columnIndex) {
-        // Be more specific for better renderer and sorter behavior
+        // Be more specific for better renderer behavior
         switch (columnIndex) {
             case 0: // ID
                 return Integer.class;
             case 2: // Amount
-                return Double.class;
+                return Money.class;
             default:
                 return String.class;
         }
     }
 
-    // --- NEW METHOD 1 ---
     /**
-     * Helper method to get the Transaction object from a specific row.
-     * @param modelRow The row index in the model (not the view)
-     * @return The Transaction object.
+     * Helper method to get the transaction shown in a specific row.
+     * @param modelRow The row index in the model
+     * @return The row, or null if its block is still loading (a fetch is started).
      */
-    public Transaction getTransactionAt(int modelRow) {
-        return transactions.get(modelRow);
+    public TransactionView getTransactionAt(int modelRow) {
+        int block = modelRow / BLOCK_SIZE;
+        List<TransactionView> rows = blocks.get(block);
+        if (rows == null) {
+            requestBlock(block);
+            return null;
+        }
+        int offsetInBlock = modelRow % BLOCK_SIZE;
+        return offsetInBlock < rows.size() ? rows.get(offsetInBlock) : null;
     }
 
-    // --- NEW METHOD 2 ---
     /**
-     * Updates the table with a new list of transactions and refreshes the view.
-     * @param newTransactions The new list of transactions.
+     * Replaces one row after it was edited, without re-fetching its block.
      */
-    public void setTransactions(List<Transaction> newTransactions) {
-        this.transactions = newTransactions;
-        // This tells the JTable to refresh its data
-        fireTableDataChanged();
+    public void transactionUpdated(int modelRow, TransactionView updated) {
+        List<TransactionView> rows = blocks.get(modelRow / BLOCK_SIZE);
+        int offsetInBlock = modelRow % BLOCK_SIZE;
+        if (rows != null && offsetInBlock < rows.size()) {
+            rows.set(offsetInBlock, updated);
+        }
+        fireTableRowsUpdated(modelRow, modelRow);
+    }
+
+    private void requestBlock(int block) {
+        if (!loadingBlocks.add(block)) return;
+
+        int expectedGeneration = generation;
+        TransactionSort blockSort = sort;
+        boolean blockAscending = ascending;
+        Map.Entry<Integer, TransactionView> before = blockEnds.floorEntry(block - 1);
+        BLOCK_LOADER.submit(() -> {
+            List<TransactionView> rows;
+            if (before != null) {
+                int skip = (block - 1 - before.getKey()) * BLOCK_SIZE;
+                rows = financeService.getTransactionBlockAfter(
+                        userId, blockSort, blockAscending, before.getValue(), skip, BLOCK_SIZE);
+            } else {
+                rows = financeService.getTransactionBlock(
+                        userId, blockSort, blockAscending, block * BLOCK_SIZE, BLOCK_SIZE);
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (expectedGeneration != generation) return;
+                loadingBlocks.remove(block);
+                // Failed or empty: leave it uncached so the next repaint asks again
+                if (rows == null || rows.isEmpty()) return;
+                blocks.put(block, rows);
+                if (rows.size() == BLOCK_SIZE) {
+                    blockEnds.put(block, rows.get(BLOCK_SIZE - 1));
+                }
+                int first = block * BLOCK_SIZE;
+                int last = Math.min(rowCount, first + BLOCK_SIZE) - 1;
+                if (last >= first) {
+                    fireTableRowsUpdated(first, last);
+                }
+            });
+        });
     }
 }
@@ -0,0 +1,56 @@
+package personalfinancemanager.models;
+
+import java.time.LocalDate;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SeriesBucketTest {
+
+    private static final LocalDate JAN_15 = LocalDate.of(2025, 1, 15);
+
+    @Test
+    public void dayCountsEveryDay() {
+        assertEquals(1, SeriesBucket.DAY.count(JAN_15, JAN_15.plusDays(1)));
+        assertEquals(31, SeriesBucket.DAY.count(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)));
+        assertEquals(JAN_15.plusDays(20), SeriesBucket.DAY.start(JAN_15, 20));
+    }
+
+    @Test
+    public void weekRoundsAPartialWeekUp() {
+        assertEquals(1, SeriesBucket.WEEK.count(JAN_15, JAN_15.plusDays(1)));
+        assertEquals(1, SeriesBucket.WEEK.count(JAN_15, JAN_15.plusDays(7)));
+        assertEquals(2, SeriesBucket.WEEK.count(JAN_15, JAN_15.plusDays(8)));
+        // Weeks start on the weekday of the range start, not on Monday
+        assertEquals(JAN_15.plusDays(14), SeriesBucket.WEEK.start(JAN_15, 2));
+    }
+
+    @Test
+    public void monthCountsCalendarMonthsTouched() {
+        assertEquals(1, SeriesBucket.MONTH.count(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)));
+        assertEquals(12, SeriesBucket.MONTH.count(LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1)));
+        // Jan 15 .. Feb 1 (exclusive) is still only January
+        assertEquals(1, SeriesBucket.MONTH.count(JAN_15, LocalDate.of(2025, 2, 1)));
+        assertEquals(2, SeriesBucket.MONTH.count(JAN_15, LocalDate.of(2025, 2, 2)));
+        // Across a year boundary
+        assertEquals(3, SeriesBucket.MONTH.count(LocalDate.of(2024, 11, 30), LocalDate.of(2025, 1, 2)));
+    }
+
+    @Test
+    public void firstMonthStartsAtTheRangeStart() {
+        assertEquals(JAN_15, SeriesBucket.MONTH.start(JAN_15, 0));
+        assertEquals(LocalDate.of(2025, 2, 1), SeriesBucket.MONTH.start(JAN_15, 1));
+        assertEquals(LocalDate.of(2026, 1, 1), SeriesBucket.MONTH.start(JAN_15, 12));
+    }
+
+    @Test
+    public void lastBucketStartsBeforeTheEnd() {
+        LocalDate from = LocalDate.of(2024, 2, 10);
+        LocalDate to = LocalDate.of(2024, 9, 3);
+        for (SeriesBucket bucket : SeriesBucket.values()) {
+            int count = bucket.count(from, to);
+            assertTrue(bucket + " last bucket", bucket.start(from, count - 1).isBefore(to));
+            assertFalse(bucket + " one past the last", bucket.start(from, count).isBefore(to));
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package personalfinancemanager.models;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The expense bit per row is shifted along with the other columns on back-dated
+ * inserts and removes; these tests check it against a plain list of rows, with
+ * enough rows to cross several 64-bit words.
+ */
+public class TransactionColumnsTest {
+
+    private static final int DAY = 19_000;
+
+    @Test
+    public void backDatedInsertKeepsTypesAligned() {
+        TransactionColumns columns = new TransactionColumns();
+        List<Row> rows = new ArrayList<>();
+        // 130 rows on later days, alternating types, then insert before all of them
+        for (int i = 1; i <= 130; i++) {
+            add(columns, rows, new Row(i, 1, i % 3 == 0, 100 * i, DAY + 10));
+        }
+        add(columns, rows, new Row(131, 2, true, 7, DAY));
+
+        assertSums(columns, rows);
+        assertEquals(7, columns.sumByType(DAY, DAY + 1)[1]);
+        assertEquals(0, columns.sumByType(DAY, DAY + 1)[0]);
+    }
+
+    @Test
+    public void removeKeepsTypesAligned() {
+        TransactionColumns columns = new TransactionColumns();
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            add(columns, rows, new Row(i, i % 4, i % 2 == 0, i, DAY + i / 10));
+        }
+        for (int id : new int[]{1, 64, 65, 128, 200, 100}) {
+            assertTrue(columns.remove(id));
+            rows.removeIf(row -> row.id == id);
+            assertSums(columns, rows);
+        }
+        assertFalse(columns.remove(64));
+        assertEquals(rows.size(), columns.size());
+    }
+
+    @Test
+    public void randomInsertsAndRemovesMatchPlainList() {
+        Random random = new Random(42);
+        TransactionColumns columns = new TransactionColumns();
+        List<Row> rows = new ArrayList<>();
+        int nextId = 1;
+        for (int step = 0; step < 2_000; step++) {
+            if (!rows.isEmpty() && random.nextInt(4) == 0) {
+                Row victim = rows.get(random.nextInt(rows.size()));
+                assertTrue(columns.remove(victim.id));
+                rows.remove(victim);
+            } else {
+                add(columns, rows, new Row(nextId++, random.nextInt(5), random.nextBoolean(),
+                        1 + random.nextInt(10_000), DAY + random.nextInt(365)));
+            }
+        }
+        assertSums(columns, rows);
+    }
+
+    @Test
+    public void addRejectsIdsNotAboveTheLargest() {
+        TransactionColumns columns = new TransactionColumns();
+        assertTrue(columns.add(10, 1, 1, false, 100, DAY, null));
+        assertFalse(columns.add(10, 1, 1, false, 100, DAY, null));
+        assertFalse(columns.add(5, 1, 1, false, 100, DAY, null));
+        assertEquals(1, columns.size());
+        assertEquals(10, columns.getMaxId());
+    }
+
+    @Test
+    public void updateChangesAmountAndNote() {
+        TransactionColumns columns = new TransactionColumns();
+        columns.add(1, 1, 1, true, 500, DAY, "lunch");
+
+        assertTrue(columns.update(1, Money.ofMinor(750), null));
+        assertFalse(columns.update(2, Money.ofMinor(1), "x"));
+
+        assertEquals(750, columns.sumByType()[1]);
+        assertNull(columns.getNote(1));
+    }
+
+    @Test
+    public void encodedColumnsReadBackTheSame() {
+        Random random = new Random(7);
+        TransactionColumns columns = new TransactionColumns();
+        List<Row> rows = new ArrayList<>();
+        for (int i = 1; i <= 300; i++) {
+            add(columns, rows, new Row(i, random.nextInt(6), random.nextBoolean(),
+                    random.nextInt(1_000_000), DAY + random.nextInt(90)));
+        }
+        columns.remove(150);
+        rows.removeIf(row -> row.id == 150);
+
+        ByteBuffer buffer = ByteBuffer.allocate(columns.encodedSize());
+        columns.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        TransactionColumns copy = TransactionColumns.readFrom(buffer);
+
+        assertSums(copy, rows);
+        assertArrayEquals(columns.fingerprint(), copy.fingerprint());
+        assertEquals(columns.getMaxId(), copy.getMaxId());
+        assertEquals("note 7", copy.getNote(7));
+        // The copy keeps working as a store
+        assertTrue(copy.add(301, 1, 99, true, 5, DAY, "new"));
+        assertEquals("new", copy.getNote(301));
+    }
+
+    private static void add(TransactionColumns columns, List<Row> rows, Row row) {
+        assertTrue(columns.add(row.id, 1, row.category, row.expense, row.amount, row.day, "note " + row.id));
+        rows.add(row);
+    }
+
+    private static void assertSums(TransactionColumns columns, List<Row> rows) {
+        assertEquals(rows.size(), columns.size());
+        for (int from = DAY; from < DAY + 400; from += 37) {
+            int to = from + 45;
+            long income = 0;
+            long expense = 0;
+            for (Row row : rows) {
+                if (row.day >= from && row.day < to) {
+                    if (row.expense) expense += row.amount;
+                    else income += row.amount;
+                }
+            }
+            assertArrayEquals("days " + from + ".." + to, new long[]{income, expense}, columns.sumByType(from, to));
+        }
+
+        Map<Integer, Money> byCategory = columns.sumByCategory(true, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        long previous = Long.MAX_VALUE;
+        for (Map.Entry<Integer, Money> entry : byCategory.entrySet()) {
+            long expected = 0;
+            for (Row row : rows) {
+                if (row.expense && row.category == entry.getKey()) expected += row.amount;
+            }
+            assertEquals(expected, entry.getValue().getMinorUnits());
+            assertTrue("largest first", entry.getValue().getMinorUnits() <= previous);
+            previous = entry.getValue().getMinorUnits();
+        }
+    }
+
+    private static final class Row {
+        final int id;
+        final int category;
+        final boolean expense;
+        final long amount;
+        final int day;
+
+        Row(int id, int category, boolean expense, long amount, int day) {
+            this.id = id;
+            this.category = category;
+            this.expense = expense;
+            this.amount = amount;
+            this.day = day;
+        }
+    }
+}
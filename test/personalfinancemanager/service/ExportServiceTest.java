@@ -0,0 +1,127 @@
+package personalfinancemanager.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * mergeDelta: applying an incremental export to a full CSV export.
+ */
+public class ExportServiceTest {
+
+    private static final String HEADER = "TransactionID,Type,Amount,Category,Account,Timestamp,Note\n";
+    private static final String DELTA_HEADER = "Change," + HEADER;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void updatesDeletesAndInsertsAreApplied() throws IOException {
+        File base = csv(HEADER
+                + "1,INCOME,100.00,Salary,Bank,2025-01-01 09:00:00,\n"
+                + "2,EXPENSE,20.00,Food,Cash,2025-01-02 12:00:00,lunch\n"
+                + "3,EXPENSE,5.00,Fun,Cash,2025-01-03 18:00:00,\n");
+        File delta = csv(DELTA_HEADER
+                + "UPDATE,2,EXPENSE,25.00,Food,Cash,2025-01-02 12:00:00,lunch + tip\n"
+                + "DELETE,3,EXPENSE,5.00,Fun,Cash,2025-01-03 18:00:00,\n"
+                + "INSERT,4,EXPENSE,9.99,Fun,Card,2025-01-04 20:00:00,\n"
+                + "INSERT,5,INCOME,1.00,Gift,Cash,2025-01-05 08:00:00,\n");
+        File out = temp.newFile();
+
+        assertEquals(4, ExportService.mergeDelta(base, delta, out));
+        assertEquals(HEADER
+                + "1,INCOME,100.00,Salary,Bank,2025-01-01 09:00:00,\n"
+                + "2,EXPENSE,25.00,Food,Cash,2025-01-02 12:00:00,lunch + tip\n"
+                + "4,EXPENSE,9.99,Fun,Card,2025-01-04 20:00:00,\n"
+                + "5,INCOME,1.00,Gift,Cash,2025-01-05 08:00:00,\n", read(out));
+    }
+
+    @Test
+    public void emptyDeltaCopiesTheBase() throws IOException {
+        String rows = "1,INCOME,100.00,Salary,Bank,2025-01-01 09:00:00,\n"
+                    + "2,EXPENSE,20.00,Food,Cash,2025-01-02 12:00:00,\n";
+        File out = temp.newFile();
+
+        assertEquals(2, ExportService.mergeDelta(csv(HEADER + rows), csv(DELTA_HEADER), out));
+        assertEquals(HEADER + rows, read(out));
+    }
+
+    @Test
+    public void mergeOfAMergeAppliesTheNextDelta() throws IOException {
+        File base = csv(HEADER + "1,INCOME,1.00,A,B,2025-01-01 00:00:00,\n");
+        File first = temp.newFile();
+        ExportService.mergeDelta(base, csv(DELTA_HEADER + "INSERT,2,INCOME,2.00,A,B,2025-01-02 00:00:00,\n"), first);
+        File second = temp.newFile();
+        ExportService.mergeDelta(first, csv(DELTA_HEADER + "DELETE,1,INCOME,1.00,A,B,2025-01-01 00:00:00,\n"), second);
+
+        assertEquals(HEADER + "2,INCOME,2.00,A,B,2025-01-02 00:00:00,\n", read(second));
+    }
+
+    @Test
+    public void multiLineNotesKeepTheirLineBreaks() throws IOException {
+        File base = csv(HEADER
+                + "1,EXPENSE,1.00,A,B,2025-01-01 00:00:00,\"crlf\r\nnote\"\n"
+                + "2,EXPENSE,2.00,A,B,2025-01-02 00:00:00,\"lone\rcr, and \"\"quotes\"\"\"\n"
+                + "3,EXPENSE,3.00,A,B,2025-01-03 00:00:00,\"lf\nnote\"\n");
+        File delta = csv(DELTA_HEADER
+                + "UPDATE,3,EXPENSE,3.00,A,B,2025-01-03 00:00:00,\"now\r\ntwo\r\nbreaks\"\n"
+                + "INSERT,4,EXPENSE,4.00,A,B,2025-01-04 00:00:00,\"new\rrow\"\n");
+        File out = temp.newFile();
+
+        assertEquals(4, ExportService.mergeDelta(base, delta, out));
+        assertEquals(HEADER
+                + "1,EXPENSE,1.00,A,B,2025-01-01 00:00:00,\"crlf\r\nnote\"\n"
+                + "2,EXPENSE,2.00,A,B,2025-01-02 00:00:00,\"lone\rcr, and \"\"quotes\"\"\"\n"
+                + "3,EXPENSE,3.00,A,B,2025-01-03 00:00:00,\"now\r\ntwo\r\nbreaks\"\n"
+                + "4,EXPENSE,4.00,A,B,2025-01-04 00:00:00,\"new\rrow\"\n", read(out));
+    }
+
+    @Test
+    public void wrongHeaderIsRejectedAndNoOutputIsLeft() throws IOException {
+        File out = temp.newFile();
+        try {
+            ExportService.mergeDelta(csv(HEADER), csv(HEADER), out);
+            fail("a full export is not a delta");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("header"));
+        }
+        assertFalse(out.exists());
+    }
+
+    @Test
+    public void changeAfterTheInsertsIsRejected() throws IOException {
+        File delta = csv(DELTA_HEADER
+                + "INSERT,2,INCOME,2.00,A,B,2025-01-02 00:00:00,\n"
+                + "UPDATE,1,INCOME,9.00,A,B,2025-01-01 00:00:00,\n");
+        File out = temp.newFile();
+        try {
+            ExportService.mergeDelta(csv(HEADER + "1,INCOME,1.00,A,B,2025-01-01 00:00:00,\n"), delta, out);
+            fail("UPDATE rows must come before the INSERT rows");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("after the INSERT"));
+        }
+        assertFalse(out.exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownChangeIsRejected() throws IOException {
+        ExportService.mergeDelta(csv(HEADER), csv(DELTA_HEADER + "UPSERT,1,INCOME,1.00,A,B,2025-01-01 00:00:00,\n"),
+                temp.newFile());
+    }
+
+    private File csv(String content) throws IOException {
+        File file = temp.newFile();
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String read(File file) throws IOException {
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
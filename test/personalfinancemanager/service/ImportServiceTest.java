@@ -0,0 +1,69 @@
+package personalfinancemanager.service;
+
+import java.io.IOException;
+import java.util.Map;
+import org.junit.Test;
+import personalfinancemanager.util.CsvUtil;
+
+import static org.junit.Assert.*;
+
+/**
+ * Row validation of the CSV import, in particular amounts the transactions table
+ * can't hold.
+ */
+public class ImportServiceTest {
+
+    private static final Map<String, Integer> ACCOUNTS = Map.of("cash", 1);
+    private static final Map<String, Integer> CATEGORIES = Map.of("food", 2);
+
+    @Test
+    public void validRowIsParsed() throws IOException {
+        ImportService.ParsedRow row = parse("EXPENSE", "12.50");
+        assertNull(row.error);
+        assertEquals("EXPENSE", row.transaction.getType());
+        assertEquals(1250, row.transaction.getAmount().getMinorUnits());
+        assertEquals(1, row.transaction.getAccountId());
+        assertEquals(2, row.transaction.getCategoryId());
+    }
+
+    @Test
+    public void trailingZerosBeyondTwoDecimalsAreAccepted() throws IOException {
+        assertEquals(150, parse("INCOME", "1.500").transaction.getAmount().getMinorUnits());
+        assertEquals(10000, parse("INCOME", "1E+2").transaction.getAmount().getMinorUnits());
+    }
+
+    @Test
+    public void moreThanTwoDecimalsIsRejected() throws IOException {
+        assertEquals("Row 7: amount must be positive with at most 2 decimals", parse("INCOME", "1.505").error);
+    }
+
+    @Test
+    public void largestAmountIsAccepted() throws IOException {
+        assertEquals(999_999_999_999L, parse("INCOME", "9999999999.99").transaction.getAmount().getMinorUnits());
+    }
+
+    @Test
+    public void amountTooLargeForTheTableIsRejected() throws IOException {
+        // Fits in a long of minor units, but not in DECIMAL(12,2)
+        assertEquals("Row 7: amount out of range", parse("INCOME", "10000000000").error);
+        assertEquals("Row 7: amount out of range", parse("", "-10000000000.00").error);
+    }
+
+    @Test
+    public void scientificNotationAmountsAreRejected() throws IOException {
+        assertEquals("Row 7: amount out of range", parse("INCOME", "1e20").error);
+        assertEquals("Row 7: amount out of range", parse("EXPENSE", "1e30").error);
+    }
+
+    @Test
+    public void notANumberIsRejected() throws IOException {
+        assertEquals("Row 7: invalid amount", parse("INCOME", "12,50.x").error);
+    }
+
+    private static ImportService.ParsedRow parse(String type, String amount) throws IOException {
+        ImportService.Columns columns = new ImportService.Columns(
+                CsvUtil.parseRecord("Type,Amount,Category,Account,Timestamp,Note"));
+        String record = type + ",\"" + amount + "\",Food,Cash,2025-01-02 12:00:00,";
+        return ImportService.parseRow(record, 7, columns, ACCOUNTS, CATEGORIES);
+    }
+}
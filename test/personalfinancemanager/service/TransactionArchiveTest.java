@@ -0,0 +1,162 @@
+package personalfinancemanager.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import personalfinancemanager.models.Money;
+import personalfinancemanager.models.TransactionView;
+
+import static org.junit.Assert.*;
+
+public class TransactionArchiveTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+
+    @Test
+    public void rowsReadBackAsWritten() throws IOException {
+        List<TransactionView> rows = sampleRows(10);
+        assertRows(rows, describe(readAll(write(rows))));
+    }
+
+    @Test
+    public void rowsSpanningSeveralBlocksReadBackAsWritten() throws IOException {
+        List<TransactionView> rows = sampleRows(9_000); // more than two blocks of 4096
+        assertRows(rows, describe(readAll(write(rows))));
+    }
+
+    @Test
+    public void emptyArchiveHasNoBlocks() throws IOException {
+        try (TransactionArchive.Reader reader = new TransactionArchive.Reader(
+                new ByteArrayInputStream(write(List.of())))) {
+            assertNull(reader.nextBlock());
+        }
+    }
+
+    @Test
+    public void extremeValuesSurvive() throws IOException {
+        List<TransactionView> rows = List.of(
+                view(Integer.MAX_VALUE, true, Long.MAX_VALUE / 1000, LocalDateTime.of(2099, 12, 31, 23, 59, 59), "ünïcödé ✓"),
+                view(1, false, 1, LocalDateTime.of(1970, 1, 1, 0, 0), ""),
+                view(2, true, 99, LocalDateTime.of(1969, 6, 1, 12, 0), null));
+        assertRows(rows, describe(readAll(write(rows))));
+    }
+
+    @Test
+    public void isArchiveChecksTheMagicAndResets() throws IOException {
+        InputStream archive = new BufferedInputStream(new ByteArrayInputStream(write(sampleRows(1))));
+        assertTrue(TransactionArchive.isArchive(archive));
+        assertEquals('P', archive.read());
+
+        InputStream csv = new BufferedInputStream(new ByteArrayInputStream("TransactionID,Type".getBytes()));
+        assertFalse(TransactionArchive.isArchive(csv));
+        assertEquals('T', csv.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void notAnArchiveIsRejected() throws IOException {
+        new TransactionArchive.Reader(new ByteArrayInputStream("TransactionID,Type,Amount\n".getBytes()));
+    }
+
+    @Test
+    public void corruptBlockFailsItsChecksum() throws IOException {
+        byte[] bytes = write(sampleRows(100));
+        bytes[bytes.length - 10] ^= 0x40;
+        try {
+            readAll(bytes);
+            fail("corruption must be detected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("checksum"));
+        }
+    }
+
+    @Test
+    public void truncatedArchiveIsRejected() throws IOException {
+        byte[] bytes = write(sampleRows(100));
+        try {
+            readAll(Arrays.copyOf(bytes, bytes.length / 2));
+            fail("truncation must be detected");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("truncated"));
+        }
+    }
+
+    private static byte[] write(List<TransactionView> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TransactionArchive.Writer writer = new TransactionArchive.Writer(bytes)) {
+            for (TransactionView row : rows) {
+                assertTrue(writer.handle(row));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<TransactionArchive.Block> readAll(byte[] bytes) throws IOException {
+        List<TransactionArchive.Block> blocks = new ArrayList<>();
+        try (TransactionArchive.Reader reader = new TransactionArchive.Reader(new ByteArrayInputStream(bytes))) {
+            TransactionArchive.Block block;
+            while ((block = reader.nextBlock()) != null) {
+                blocks.add(block);
+            }
+        }
+        return blocks;
+    }
+
+    // Archives keep names, not account and category ids, so compare the fields they hold
+    private static List<String> describe(List<TransactionArchive.Block> blocks) {
+        List<String> rows = new ArrayList<>();
+        for (TransactionArchive.Block block : blocks) {
+            for (int i = 0; i < block.rows; i++) {
+                rows.add(describe(block.ids[i], block.isExpense(i), block.amounts[i], block.getAccountName(i),
+                        block.getCategoryName(i), block.getTimestamp(i), block.getNote(i)));
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRows(List<TransactionView> expected, List<String> actual) {
+        List<String> described = new ArrayList<>();
+        for (TransactionView row : expected) {
+            described.add(describe(row.getTransactionId(), row.isExpense(), row.getAmount().getMinorUnits(),
+                    row.getAccountName(), row.getCategoryName(), row.getTimestamp(), row.getNote()));
+        }
+        assertEquals(described, actual);
+    }
+
+    private static String describe(int id, boolean expense, long amount, String account, String category,
+                                   LocalDateTime timestamp, String note) {
+        return id + "|" + expense + "|" + amount + "|" + account + "|" + category + "|" + timestamp + "|" + note;
+    }
+
+    private static List<TransactionView> sampleRows(int count) {
+        Random random = new Random(count);
+        String[] accounts = {"Cash", "Savings", "Card"};
+        String[] categories = {"Food", "Rent", "Salary", "Travel", "Fun"};
+        String[] notes = {null, "", "weekly shop", "line\r\nbreak", "a,b \"quoted\""};
+        List<TransactionView> rows = new ArrayList<>();
+        int id = 0;
+        LocalDateTime timestamp = START;
+        for (int i = 0; i < count; i++) {
+            id += 1 + random.nextInt(3);
+            // Mostly forward in time, sometimes back-dated
+            timestamp = timestamp.plusSeconds(random.nextInt(100_000) - 10_000);
+            rows.add(new TransactionView(id, random.nextBoolean() ? "EXPENSE" : "INCOME",
+                    Money.ofMinor(1 + random.nextInt(10_000_000)), 1, accounts[random.nextInt(accounts.length)],
+                    1, categories[random.nextInt(categories.length)], timestamp,
+                    notes[random.nextInt(notes.length)]));
+        }
+        return rows;
+    }
+
+    private static TransactionView view(int id, boolean expense, long amount, LocalDateTime timestamp, String note) {
+        return new TransactionView(id, expense ? "EXPENSE" : "INCOME", Money.ofMinor(amount),
+                1, "Account", 1, "Category", timestamp, note);
+    }
+}
@@ -0,0 +1,103 @@
+package personalfinancemanager.service;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UnitOfWorkTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load() {
+        return "value" + loads.incrementAndGet();
+    }
+
+    @Test
+    public void withoutAScopeEveryReadLoads() {
+        assertEquals("value1", UnitOfWork.read("k", this::load));
+        assertEquals("value2", UnitOfWork.read("k", this::load));
+    }
+
+    @Test
+    public void repeatedReadInAScopeLoadsOnce() {
+        UnitOfWork.run(() -> {
+            assertEquals("value1", UnitOfWork.read("k", this::load));
+            assertEquals("value1", UnitOfWork.read("k", this::load));
+            assertEquals("value2", UnitOfWork.read("other", this::load));
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void closingTheScopeForgetsReads() {
+        UnitOfWork.run(() -> UnitOfWork.read("k", this::load));
+        UnitOfWork.run(() -> assertEquals("value2", UnitOfWork.read("k", this::load)));
+    }
+
+    @Test
+    public void nestedScopeJoinsTheOuterOne() throws Exception {
+        String outer = UnitOfWork.call(() -> {
+            UnitOfWork.read("k", this::load);
+            String inner = UnitOfWork.call(() -> UnitOfWork.read("k", this::load));
+            // Still open after the inner scope closed
+            assertEquals("value1", UnitOfWork.read("k", this::load));
+            return inner;
+        });
+        assertEquals("value1", outer);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void invalidateForgetsReadsSoFar() {
+        UnitOfWork.run(() -> {
+            UnitOfWork.read("k", this::load);
+            UnitOfWork.invalidate();
+            assertEquals("value2", UnitOfWork.read("k", this::load));
+            assertEquals("value2", UnitOfWork.read("k", this::load));
+        });
+    }
+
+    @Test
+    public void nullIsNotRemembered() {
+        AtomicInteger failures = new AtomicInteger();
+        UnitOfWork.run(() -> {
+            assertNull(UnitOfWork.read("k", () -> {
+                failures.incrementAndGet();
+                return null;
+            }));
+            assertEquals("value1", UnitOfWork.read("k", this::load));
+        });
+        assertEquals(1, failures.get());
+    }
+
+    @Test
+    public void emptyOptionalIsRemembered() {
+        UnitOfWork.run(() -> {
+            UnitOfWork.read("k", () -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            });
+            assertEquals(Optional.empty(), UnitOfWork.read("k", this::load));
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void scopeIsClosedWhenTheTaskThrows() {
+        try {
+            UnitOfWork.call(() -> {
+                UnitOfWork.read("k", this::load);
+                throw new IllegalStateException("boom");
+            });
+            fail();
+        } catch (Exception expected) {
+            assertEquals("boom", expected.getMessage());
+        }
+        // No scope left open on this thread
+        UnitOfWork.read("k", this::load);
+        UnitOfWork.read("k", this::load);
+        assertEquals(3, loads.get());
+    }
+}
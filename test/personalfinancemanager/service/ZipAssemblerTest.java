@@ -0,0 +1,120 @@
+package personalfinancemanager.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ZipAssemblerTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2025, 6, 30, 14, 45, 10);
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void entriesReadBackWithZipFile() throws IOException {
+        Path zip = assemble("2025-01.csv", csv(1, 500), "2025-02.csv", csv(501, 20_000));
+
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            List<String> names = new ArrayList<>();
+            for (ZipEntry entry : Collections.list(file.entries())) {
+                names.add(entry.getName());
+                assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            }
+            assertEquals(List.of("2025-01.csv", "2025-02.csv"), names);
+            assertEquals(csv(1, 500), read(file.getInputStream(file.getEntry("2025-01.csv"))));
+            assertEquals(csv(501, 20_000), read(file.getInputStream(file.getEntry("2025-02.csv"))));
+            ZipEntry second = file.getEntry("2025-02.csv");
+            assertEquals(csv(501, 20_000).getBytes(StandardCharsets.UTF_8).length, second.getSize());
+            assertTrue("compressed", second.getCompressedSize() < second.getSize());
+        }
+    }
+
+    @Test
+    public void entriesReadBackWithZipInputStream() throws IOException {
+        // ZipInputStream reads the local headers and checks each entry's CRC-32
+        Path zip = assemble("a.csv", "x\n", "b.csv", csv(1, 1_000));
+
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry = in.getNextEntry();
+            assertEquals("a.csv", entry.getName());
+            assertEquals("x\n", read(in));
+            entry = in.getNextEntry();
+            assertEquals("b.csv", entry.getName());
+            assertEquals(csv(1, 1_000), read(in));
+            assertNull(in.getNextEntry());
+        }
+    }
+
+    @Test
+    public void nonAsciiNamesAndEmptyEntries() throws IOException {
+        Path zip = assemble("résumé ✓.csv", "", "empty.csv", "");
+
+        try (ZipFile file = new ZipFile(zip.toFile(), StandardCharsets.UTF_8)) {
+            assertNotNull(file.getEntry("résumé ✓.csv"));
+            assertEquals("", read(file.getInputStream(file.getEntry("empty.csv"))));
+            assertEquals(2, file.size());
+        }
+    }
+
+    @Test
+    public void modificationTimeIsKept() throws IOException {
+        Path zip = assemble("a.csv", "x");
+
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            // DOS times have two-second resolution
+            assertEquals(MODIFIED.withSecond(10), file.getEntry("a.csv").getTimeLocal());
+        }
+    }
+
+    @Test
+    public void archiveWithoutEntriesIsValid() throws IOException {
+        Path zip = assemble();
+
+        try (ZipFile file = new ZipFile(zip.toFile())) {
+            assertEquals(0, file.size());
+        }
+    }
+
+    // Alternating entry names and contents
+    private Path assemble(String... namesAndContents) throws IOException {
+        Path zip = temp.getRoot().toPath().resolve("out.zip");
+        try (ZipAssembler assembler = new ZipAssembler(zip, MODIFIED)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                ZipAssembler.Entry entry = new ZipAssembler.Entry(namesAndContents[i], temp.newFile().toPath());
+                try (OutputStream out = ZipAssembler.deflate(entry)) {
+                    out.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                }
+                assembler.add(entry);
+            }
+        }
+        return zip;
+    }
+
+    private static String csv(int firstId, int lastId) {
+        StringBuilder csv = new StringBuilder("TransactionID,Type,Amount\n");
+        for (int id = firstId; id <= lastId; id++) {
+            csv.append(id).append(id % 2 == 0 ? ",EXPENSE," : ",INCOME,").append(id * 7 % 1000).append(".50\n");
+        }
+        return csv.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
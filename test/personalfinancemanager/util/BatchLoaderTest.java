@@ -0,0 +1,73 @@
+package personalfinancemanager.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BatchLoaderTest {
+
+    private final List<Set<Integer>> calls = new ArrayList<>();
+
+    // Even keys exist, odd ones don't
+    private final BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+        calls.add(keys);
+        Map<Integer, String> found = new HashMap<>();
+        for (int key : keys) {
+            if (key % 2 == 0) found.put(key, "v" + key);
+        }
+        return found;
+    });
+
+    @Test
+    public void queuedKeysAreLoadedInOneBatch() {
+        loader.enqueueAll(List.of(2, 4, 6));
+        assertEquals("v4", loader.load(4));
+        assertEquals("v2", loader.load(2));
+        assertEquals("v6", loader.load(6));
+
+        assertEquals(1, calls.size());
+        assertEquals(Set.of(2, 4, 6), calls.get(0));
+        assertEquals(1, loader.getBatchCount());
+    }
+
+    @Test
+    public void loadOfAnUnqueuedKeyAlsoFetchesTheQueue() {
+        loader.enqueue(2);
+        assertEquals("v8", loader.load(8));
+
+        assertEquals(Set.of(2, 8), calls.get(0));
+        assertEquals("v2", loader.getIfLoaded(2));
+    }
+
+    @Test
+    public void notFoundIsRememberedToo() {
+        assertNull(loader.load(3));
+        assertNull(loader.load(3));
+        loader.enqueue(3);
+        loader.dispatch();
+
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void loadedKeysAreNotQueuedAgain() {
+        loader.load(2);
+        loader.enqueueAll(List.of(2, 4));
+        loader.dispatch();
+
+        assertEquals(Set.of(4), calls.get(1));
+    }
+
+    @Test
+    public void dispatchWithNothingQueuedDoesNotCall() {
+        loader.dispatch();
+        assertTrue(calls.isEmpty());
+        assertNull(loader.getIfLoaded(2));
+        assertTrue(calls.isEmpty());
+    }
+}
@@ -0,0 +1,333 @@
+package personalfinancemanager.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Handle lifecycle of pooled connections and cached statements, against an
+ * in-memory fake driver (no database needed).
+ */
+public class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:pooltest:";
+
+    private ConnectionPool pool;
+
+    @BeforeClass
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(new FakeDriver());
+    }
+
+    @Before
+    public void setUp() {
+        FakeDriver.statements.clear();
+        Properties config = new Properties();
+        config.setProperty("db.url", URL);
+        config.setProperty("db.pool.maxSize", "1");
+        config.setProperty("db.pool.minSize", "0");
+        pool = new ConnectionPool(config);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void closedConnectionGoesBackToThePool() throws SQLException {
+        Connection first = pool.borrow();
+        assertEquals(1, pool.getStats().getActive());
+        first.close();
+        assertEquals(0, pool.getStats().getActive());
+        assertEquals(1, pool.getStats().getIdle());
+
+        try (Connection second = pool.borrow()) {
+            assertFalse(second.isClosed());
+        }
+        assertEquals(1, pool.getStats().getCreatedCount());
+        assertEquals(2, pool.getStats().getBorrowCount());
+    }
+
+    @Test
+    public void closingAStaleHandleDoesNotReturnTheNextBorrowersConnection() throws SQLException {
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+
+        first.close();
+
+        assertEquals(1, pool.getStats().getActive());
+        assertFalse(second.isClosed());
+        second.close();
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    public void staleHandleRejectsCalls() throws SQLException {
+        Connection first = pool.borrow();
+        first.close();
+        Connection second = pool.borrow();
+
+        assertTrue(first.isClosed());
+        try {
+            first.prepareStatement("SELECT 1");
+            fail("a closed handle must not reach the pooled connection");
+        } catch (SQLException expected) {
+        }
+        assertNotSame(first, second);
+        second.close();
+    }
+
+    @Test
+    public void preparedStatementIsReusedAcrossBorrows() throws SQLException {
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            pst.executeUpdate();
+        }
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            pst.executeUpdate();
+            assertSame(con, pst.getConnection());
+        }
+
+        assertEquals(1, FakeDriver.statements.size());
+        assertEquals(1, pool.getStats().getStatementCacheHits());
+        assertEquals(1, pool.getStats().getStatementCacheMisses());
+    }
+
+    @Test
+    public void closedStatementHandleRejectsCalls() throws SQLException {
+        try (Connection con = pool.borrow()) {
+            PreparedStatement first = con.prepareStatement("SELECT 1");
+            first.close();
+            first.close();
+            PreparedStatement second = con.prepareStatement("SELECT 1");
+
+            assertTrue(first.isClosed());
+            try {
+                first.executeUpdate();
+                fail("a closed handle must not reach the cached statement");
+            } catch (SQLException expected) {
+            }
+            assertFalse(second.isClosed());
+            second.close();
+        }
+        assertEquals(1, FakeDriver.statements.size());
+    }
+
+    @Test
+    public void changedSettingsAreResetBeforeReuse() throws SQLException {
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            pst.setFetchSize(Integer.MIN_VALUE);
+            pst.setMaxRows(5);
+            pst.setQueryTimeout(30);
+        }
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            assertEquals(0, pst.getFetchSize());
+            assertEquals(0, pst.getMaxRows());
+            assertEquals(0, pst.getQueryTimeout());
+        }
+        assertEquals(1, FakeDriver.statements.size());
+    }
+
+    @Test
+    public void statementWithUnrestorableSettingIsNotReused() throws SQLException {
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            pst.setEscapeProcessing(false);
+        }
+        assertTrue(FakeDriver.statements.get(0).closed);
+
+        try (Connection con = pool.borrow(); PreparedStatement pst = con.prepareStatement("SELECT 1")) {
+            pst.executeUpdate();
+        }
+        assertEquals(2, FakeDriver.statements.size());
+    }
+
+    @Test
+    public void statementsLeftOpenAreClosedWithTheConnection() throws SQLException {
+        Connection con = pool.borrow();
+        Statement plain = con.createStatement();
+        PreparedStatement cached = con.prepareStatement("SELECT 1");
+        cached.setFetchSize(Integer.MIN_VALUE);
+        con.close();
+
+        assertTrue(plain.isClosed());
+        assertTrue(cached.isClosed());
+        // The cached statement went back to the cache, reset
+        assertFalse(FakeDriver.statements.get(1).closed);
+        assertEquals(0, FakeDriver.statements.get(1).fetchSize);
+    }
+
+    @Test
+    public void nestedUseOfTheSameSqlGetsItsOwnStatement() throws SQLException {
+        try (Connection con = pool.borrow();
+             PreparedStatement outer = con.prepareStatement("SELECT 1");
+             PreparedStatement inner = con.prepareStatement("SELECT 1")) {
+            assertNotSame(outer, inner);
+        }
+        assertEquals(2, FakeDriver.statements.size());
+        assertTrue(FakeDriver.statements.get(1).closed);
+    }
+
+    /**
+     * Driver for jdbc:pooltest: URLs whose connections and statements only keep the
+     * state the pool looks at.
+     */
+    public static final class FakeDriver implements Driver {
+        static final List<FakeStatement> statements = new ArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) return null;
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{Connection.class}, new FakeConnection());
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        private static Object defaultFor(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            return null;
+        }
+    }
+
+    static final class FakeConnection implements InvocationHandler {
+        boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "isValid":
+                    return !closed;
+                case "getAutoCommit":
+                    return true;
+                case "prepareStatement":
+                    return FakeStatement.create(PreparedStatement.class);
+                case "createStatement":
+                    return FakeStatement.create(Statement.class);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return FakeDriver.defaultFor(method.getReturnType());
+            }
+        }
+    }
+
+    static final class FakeStatement implements InvocationHandler {
+        boolean closed;
+        int fetchSize;
+        int maxRows;
+        int queryTimeout;
+        int fetchDirection = ResultSet.FETCH_FORWARD;
+        int maxFieldSize;
+
+        static <T extends Statement> T create(Class<T> type) {
+            FakeStatement statement = new FakeStatement();
+            FakeDriver.statements.add(statement);
+            return type.cast(Proxy.newProxyInstance(FakeStatement.class.getClassLoader(),
+                    new Class<?>[]{type}, statement));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            String name = method.getName();
+            if (closed && !name.equals("close") && !name.equals("isClosed")) {
+                throw new SQLException("statement is closed");
+            }
+            switch (name) {
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "setFetchSize":
+                    fetchSize = (Integer) args[0];
+                    return null;
+                case "getFetchSize":
+                    return fetchSize;
+                case "setMaxRows":
+                    maxRows = (Integer) args[0];
+                    return null;
+                case "getMaxRows":
+                    return maxRows;
+                case "setQueryTimeout":
+                    queryTimeout = (Integer) args[0];
+                    return null;
+                case "getQueryTimeout":
+                    return queryTimeout;
+                case "setFetchDirection":
+                    fetchDirection = (Integer) args[0];
+                    return null;
+                case "getFetchDirection":
+                    return fetchDirection;
+                case "setMaxFieldSize":
+                    maxFieldSize = (Integer) args[0];
+                    return null;
+                case "getMaxFieldSize":
+                    return maxFieldSize;
+                case "executeUpdate":
+                    return 1;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return FakeDriver.defaultFor(method.getReturnType());
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package personalfinancemanager.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CsvUtilTest {
+
+    @Test
+    public void plainFieldsAreNotQuoted() {
+        assertEquals("plain", CsvUtil.escapeField("plain"));
+        assertEquals("", CsvUtil.escapeField(null));
+        assertEquals("", CsvUtil.appendField(new StringBuilder(), null).toString());
+    }
+
+    @Test
+    public void specialCharactersAreQuoted() {
+        assertEquals("\"a,b\"", CsvUtil.escapeField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", CsvUtil.escapeField("say \"hi\""));
+        assertEquals("\"two\nlines\"", CsvUtil.escapeField("two\nlines"));
+        assertEquals("\"cr\ronly\"", CsvUtil.escapeField("cr\ronly"));
+    }
+
+    @Test
+    public void parseUndoesQuoting() {
+        assertEquals(List.of("1", "a,b", "say \"hi\"", "", "x\r\ny"),
+                CsvUtil.parseRecord("1,\"a,b\",\"say \"\"hi\"\"\",,\"x\r\ny\""));
+        assertEquals(List.of(""), CsvUtil.parseRecord(""));
+        assertEquals(List.of("", ""), CsvUtil.parseRecord(","));
+    }
+
+    @Test
+    public void escapedFieldsRoundTrip() {
+        String[] fields = {"", "plain", "a,b", "\"", "\"\"", "line\nbreak", "crlf\r\nbreak", "lone\rcr", " spaced "};
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) record.append(',');
+            CsvUtil.appendField(record, fields[i]);
+        }
+        assertEquals(List.of(fields), CsvUtil.parseRecord(record.toString()));
+    }
+
+    @Test
+    public void recordsEndAtAnyLineTerminator() throws IOException {
+        assertEquals(List.of("a", "b", "c", "", "d"), readAll("a\nb\r\nc\r\rd"));
+        assertEquals(List.of("last"), readAll("last"));
+        assertEquals(List.of("last"), readAll("last\r\n"));
+        assertEquals(List.of(), readAll(""));
+    }
+
+    @Test
+    public void lineBreaksInsideQuotesAreKeptAsTheyAre() throws IOException {
+        String input = "1,\"x\r\ny\"\r\n2,\"p\rq\"\n3,\"m\nn\"\r4\n";
+        assertEquals(List.of("1,\"x\r\ny\"", "2,\"p\rq\"", "3,\"m\nn\"", "4"), readAll(input));
+    }
+
+    @Test
+    public void doubledQuotesDoNotEndTheField() throws IOException {
+        assertEquals(List.of("\"a\"\"\nb\",c", "d"), readAll("\"a\"\"\nb\",c\nd"));
+    }
+
+    @Test
+    public void unterminatedQuoteRunsToTheEnd() throws IOException {
+        assertEquals(List.of("1,\"open\nstill open"), readAll("1,\"open\nstill open"));
+    }
+
+    private static List<String> readAll(String input) throws IOException {
+        BufferedReader reader = new BufferedReader(new StringReader(input));
+        List<String> records = new ArrayList<>();
+        String record;
+        while ((record = CsvUtil.readRecord(reader)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}